@@ -0,0 +1,275 @@
+// ------------------------------------------------------------------------ //
+// Copyright 2016 Nagoya Institute of Technology                            //
+//                                                                          //
+// Licensed under the Apache License, Version 2.0 (the "License");          //
+// you may not use this file except in compliance with the License.         //
+// You may obtain a copy of the License at                                  //
+//                                                                          //
+//     http://www.apache.org/licenses/LICENSE-2.0                           //
+//                                                                          //
+// Unless required by applicable law or agreed to in writing, software      //
+// distributed under the License is distributed on an "AS IS" BASIS,        //
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
+// See the License for the specific language governing permissions and      //
+// limitations under the License.                                           //
+// ------------------------------------------------------------------------ //
+
+// Benchmark of the silence detection done when a take is stopped.
+//
+// The windowed sum of squares recomputed at every candidate frame is
+// compared with the statistics collected by FrameEnergy while capturing.
+// Synthetic takes of 10, 60 and 300 seconds are generated from a fixed
+// seed, so the results are reproducible.
+//
+// Build and run:
+//   g++ -O2 -std=c++11 -I../src finalize_benchmark.cc -o finalize_benchmark
+//   ./finalize_benchmark
+// or with Visual Studio:
+//   cl /O2 /EHsc /I..\src finalize_benchmark.cc
+//   finalize_benchmark.exe
+
+#include <algorithm>
+#include <chrono>
+#include <cmath>
+#include <cstdio>
+#include <cstdlib>
+#include <vector>
+
+#include "frame_energy.h"
+
+namespace {
+
+const int kSampleRate(48000);
+const int kSampleSize(2);
+const int kNumChannels(1);
+const int kFrameLength(25);  // msec
+const int kFrameShift(5);    // msec
+const double kSilenceLevel(0.1);
+const double kNormalizationRatio(0.5);
+const int kNumRepeats(3);
+const double kPi(3.14159265358979323846);
+
+struct Result {
+  int max;
+  double max_rms;
+  long long top_speech;
+  long long end_speech;
+  double power;
+};
+
+// Generate a take with one second of background noise at both ends and a
+// modulated tone between them.
+std::vector<int> Generate(int seconds) {
+  const long long num_frames(static_cast<long long>(kSampleRate) * seconds);
+  std::vector<int> data(num_frames * kNumChannels);
+  unsigned int seed(12345);
+  for (long long t(0); t < num_frames; ++t) {
+    seed = seed * 1103515245 + 12345;
+    const double noise(static_cast<int>((seed >> 16) & 0x7fff) - 16384);
+    double value(0.005 * noise);
+    if (kSampleRate <= t && t < num_frames - kSampleRate) {
+      const double time(static_cast<double>(t) / kSampleRate);
+      const double envelope(0.6 + 0.4 * std::sin(2.0 * kPi * 3.0 * time));
+      value += 8000.0 * envelope * std::sin(2.0 * kPi * 220.0 * time);
+    }
+    for (int i(0); i < kNumChannels; ++i) {
+      data[kNumChannels * t + i] = static_cast<int>(value);
+    }
+  }
+  return data;
+}
+
+double GetMaxNormalizedAmplitude() {
+  return std::pow(2.0, kSampleSize * 8) * 0.5 * kNormalizationRatio;
+}
+
+// The search done when a take was stopped, before the statistics were
+// collected while capturing. Every window is summed again from the samples.
+Result FindByWindowedSum(const std::vector<int> &data) {
+  const int num_frames(static_cast<int>(data.size() / kNumChannels));
+  const int frame_length_pt(kSampleRate * kFrameLength / 1000);
+  const int frame_shift_pt(kSampleRate * kFrameShift / 1000);
+  Result result;
+
+  double max_rms(0.0);
+  for (int i(0); i + frame_length_pt < num_frames; i += frame_shift_pt) {
+    double sqr(0.0);
+    for (int j(i); j < i + frame_length_pt; ++j) {
+      for (int k(0); k < kNumChannels; ++k) {
+        const int l(kNumChannels * j + k);
+        sqr += static_cast<double>(data[l]) * data[l];
+      }
+    }
+    const double rms(std::sqrt(sqr / frame_length_pt / kNumChannels));
+    if (rms > max_rms) {
+      max_rms = rms;
+    }
+  }
+  result.max_rms = max_rms;
+
+  const double scale(GetMaxNormalizedAmplitude() / max_rms);
+  std::vector<int> normalized_data(data.size());
+  for (size_t i(0); i < data.size(); ++i) {
+    normalized_data[i] = static_cast<int>(scale * data[i]);
+  }
+
+  int max(0);
+  for (size_t i(0); i < data.size(); ++i) {
+    const int amplitude(std::abs(data[i]));
+    if (amplitude > max) {
+      max = amplitude;
+    }
+  }
+  result.max = max;
+
+  const double silence_rms(kSilenceLevel * GetMaxNormalizedAmplitude());
+
+  int f(0);
+  for (; f + frame_length_pt < num_frames; f += frame_shift_pt) {
+    double sqr(0.0);
+    for (int i(f); i < f + frame_length_pt; ++i) {
+      for (int k(0); k < kNumChannels; ++k) {
+        const int l(kNumChannels * i + k);
+        sqr += static_cast<double>(normalized_data[l]) * normalized_data[l];
+      }
+    }
+    if (std::sqrt(sqr / frame_length_pt / kNumChannels) > silence_rms) {
+      break;
+    }
+  }
+  result.top_speech = f;
+
+  f = num_frames - 1;
+  for (; f - frame_length_pt >= 0; f -= frame_shift_pt) {
+    double sqr(0.0);
+    for (int i(f); i > f - frame_length_pt; --i) {
+      for (int k(0); k < kNumChannels; ++k) {
+        const int l(kNumChannels * i + k);
+        sqr += static_cast<double>(normalized_data[l]) * normalized_data[l];
+      }
+    }
+    if (std::sqrt(sqr / frame_length_pt / kNumChannels) > silence_rms) {
+      break;
+    }
+  }
+  result.end_speech = f;
+
+  double sqr(0.0);
+  for (long long i(result.top_speech); i < result.end_speech; ++i) {
+    for (int k(0); k < kNumChannels; ++k) {
+      const long long l(kNumChannels * i + k);
+      sqr += static_cast<double>(data[l]) * data[l];
+    }
+  }
+  result.power = 10.0 * std::log10(
+                     sqr / (result.end_speech - result.top_speech) /
+                     kNumChannels);
+  return result;
+}
+
+// Feed the take to FrameEnergy as Capture does.
+void Collect(const std::vector<int> &data, FrameEnergy *energy) {
+  energy->Reset(kSampleRate * kFrameShift / 1000, kFrameLength / kFrameShift,
+                kNumChannels);
+  const long long num_frames(data.size() / kNumChannels);
+  for (long long t(0); t < num_frames; ++t) {
+    int frame_peak(0);
+    double frame_sqr(0.0);
+    for (int i(0); i < kNumChannels; ++i) {
+      const int value(data[kNumChannels * t + i]);
+      const int amplitude(std::abs(value));
+      if (frame_peak < amplitude) {
+        frame_peak = amplitude;
+      }
+      frame_sqr += static_cast<double>(value) * value;
+    }
+    energy->Add(frame_sqr, frame_peak);
+  }
+}
+
+// The search done by Measure now.
+Result FindByFrameEnergy(const FrameEnergy &energy) {
+  const int frame_shift_pt(energy.GetFrameShift());
+  Result result;
+  result.max = energy.GetMaxAmplitude();
+  result.max_rms = energy.GetMaxRms();
+
+  const double scale(GetMaxNormalizedAmplitude() / result.max_rms);
+  const double silence_rms(kSilenceLevel * GetMaxNormalizedAmplitude());
+  result.top_speech = static_cast<long long>(
+                          energy.FindFirst(scale, silence_rms)) *
+                      frame_shift_pt;
+  result.end_speech =
+      static_cast<long long>(energy.FindLast(scale, silence_rms) +
+                             energy.GetNumShiftsPerFrame()) *
+      frame_shift_pt;
+
+  const double sqr(
+      energy.GetEnergy(static_cast<int>(result.top_speech / frame_shift_pt),
+                       static_cast<int>(result.end_speech / frame_shift_pt)));
+  result.power = 10.0 * std::log10(
+                     sqr / (result.end_speech - result.top_speech) /
+                     kNumChannels);
+  return result;
+}
+
+double GetElapsedTime(std::chrono::steady_clock::time_point start) {
+  return std::chrono::duration<double, std::milli>(
+             std::chrono::steady_clock::now() - start)
+      .count();
+}
+
+void PrintResult(const char *name, const Result &result) {
+  std::printf("  %-14s max %6d  max_rms %9.2f  top %8.3f s  end %8.3f s  "
+              "power %6.2f dB\n",
+              name, result.max, result.max_rms,
+              static_cast<double>(result.top_speech) / kSampleRate,
+              static_cast<double>(result.end_speech) / kSampleRate,
+              result.power);
+}
+
+}  // namespace
+
+int main() {
+  const int seconds[] = {10, 60, 300};
+  std::printf("%d Hz, %d bytes, %d channel(s), best of %d runs\n\n",
+              kSampleRate, kSampleSize, kNumChannels, kNumRepeats);
+  std::printf("%8s %16s %16s %16s %10s\n", "length", "windowed [ms]",
+              "capture [ms]", "stop [ms]", "speedup");
+
+  for (size_t n(0); n < sizeof(seconds) / sizeof(seconds[0]); ++n) {
+    const std::vector<int> data(Generate(seconds[n]));
+
+    double windowed_time(1e100);
+    Result windowed_result;
+    for (int r(0); r < kNumRepeats; ++r) {
+      const std::chrono::steady_clock::time_point start(
+          std::chrono::steady_clock::now());
+      windowed_result = FindByWindowedSum(data);
+      windowed_time = std::min(windowed_time, GetElapsedTime(start));
+    }
+
+    double capture_time(1e100);
+    double stop_time(1e100);
+    Result energy_result;
+    for (int r(0); r < kNumRepeats; ++r) {
+      FrameEnergy energy;
+      std::chrono::steady_clock::time_point start(
+          std::chrono::steady_clock::now());
+      Collect(data, &energy);
+      capture_time = std::min(capture_time, GetElapsedTime(start));
+
+      start = std::chrono::steady_clock::now();
+      energy_result = FindByFrameEnergy(energy);
+      stop_time = std::min(stop_time, GetElapsedTime(start));
+    }
+
+    std::printf("%6d s %16.3f %16.3f %16.3f %9.0fx\n", seconds[n],
+                windowed_time, capture_time, stop_time,
+                windowed_time / std::max(stop_time, 1e-6));
+    PrintResult("windowed", windowed_result);
+    PrintResult("frame energy", energy_result);
+  }
+
+  return 0;
+}
@@ -0,0 +1,160 @@
+// ------------------------------------------------------------------------ //
+// Copyright 2016 Nagoya Institute of Technology                            //
+//                                                                          //
+// Licensed under the Apache License, Version 2.0 (the "License");          //
+// you may not use this file except in compliance with the License.         //
+// You may obtain a copy of the License at                                  //
+//                                                                          //
+//     http://www.apache.org/licenses/LICENSE-2.0                           //
+//                                                                          //
+// Unless required by applicable law or agreed to in writing, software      //
+// distributed under the License is distributed on an "AS IS" BASIS,        //
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
+// See the License for the specific language governing permissions and      //
+// limitations under the License.                                           //
+// ------------------------------------------------------------------------ //
+
+#ifndef CALLPORTAUDIO_SRC_FRAME_ENERGY_H_
+#define CALLPORTAUDIO_SRC_FRAME_ENERGY_H_
+
+#include <algorithm>
+#include <cmath>
+#include <vector>
+
+// Energy statistics of a take collected frame by frame while capturing.
+// The sum of squares is accumulated per frame shift and kept as a prefix
+// sum, so the RMS of any analysis window and the power of any interval are
+// obtained in constant time after the take is stopped.
+class FrameEnergy {
+ public:
+  FrameEnergy()
+      : frame_shift_(1),
+        num_shifts_per_frame_(1),
+        num_channels_(1),
+        num_frames_in_shift_(0),
+        sqr_in_shift_(0.0),
+        max_amplitude_(0),
+        max_rms_(0.0),
+        prefix_(1, 0.0) {
+  }
+
+  ~FrameEnergy() {
+  }
+
+  // Start a new take. A window consists of num_shifts_per_frame shifts of
+  // frame_shift frames.
+  void Reset(int frame_shift, int num_shifts_per_frame, int num_channels) {
+    frame_shift_ = std::max(1, frame_shift);
+    num_shifts_per_frame_ = std::max(1, num_shifts_per_frame);
+    num_channels_ = std::max(1, num_channels);
+    num_frames_in_shift_ = 0;
+    sqr_in_shift_ = 0.0;
+    max_amplitude_ = 0;
+    max_rms_ = 0.0;
+    prefix_.assign(1, 0.0);
+  }
+
+  // Add one frame given its sum of squares over all channels and its
+  // maximum absolute amplitude.
+  void Add(double sqr, int amplitude) {
+    if (amplitude > max_amplitude_) {
+      max_amplitude_ = amplitude;
+    }
+    sqr_in_shift_ += sqr;
+    if (++num_frames_in_shift_ < frame_shift_) {
+      return;
+    }
+    prefix_.push_back(prefix_.back() + sqr_in_shift_);
+    num_frames_in_shift_ = 0;
+    sqr_in_shift_ = 0.0;
+
+    const int num_windows(GetNumWindows());
+    if (num_windows > 0) {
+      const double rms(GetRms(num_windows - 1));
+      if (rms > max_rms_) {
+        max_rms_ = rms;
+      }
+    }
+  }
+
+  int GetFrameShift() const {
+    return frame_shift_;
+  }
+
+  int GetNumShiftsPerFrame() const {
+    return num_shifts_per_frame_;
+  }
+
+  int GetFrameLength() const {
+    return frame_shift_ * num_shifts_per_frame_;
+  }
+
+  // Number of completed frame shifts. A trailing partial shift is ignored.
+  int GetNumShifts() const {
+    return static_cast<int>(prefix_.size()) - 1;
+  }
+
+  // Number of analysis windows. The h-th window covers the shifts
+  // [h, h + num_shifts_per_frame).
+  int GetNumWindows() const {
+    return std::max(0, GetNumShifts() - num_shifts_per_frame_);
+  }
+
+  int GetMaxAmplitude() const {
+    return max_amplitude_;
+  }
+
+  double GetMaxRms() const {
+    return max_rms_;
+  }
+
+  // Sum of squares of the shifts [begin, end).
+  double GetEnergy(int begin, int end) const {
+    begin = std::min(std::max(0, begin), GetNumShifts());
+    end = std::min(std::max(begin, end), GetNumShifts());
+    // Rounding errors of the prefix sum must not make the energy negative.
+    return std::max(0.0, prefix_[end] - prefix_[begin]);
+  }
+
+  double GetRms(int h) const {
+    return std::sqrt(GetEnergy(h, h + num_shifts_per_frame_) /
+                     GetFrameLength() / num_channels_);
+  }
+
+  // Return the first window whose scaled RMS exceeds the threshold, or the
+  // number of windows if there is no such window.
+  int FindFirst(double scale, double threshold) const {
+    const int num_windows(GetNumWindows());
+    int h(0);
+    for (; h < num_windows; ++h) {
+      if (scale * GetRms(h) > threshold) {
+        break;
+      }
+    }
+    return h;
+  }
+
+  // Return the last window whose scaled RMS exceeds the threshold, or -1 if
+  // there is no such window.
+  int FindLast(double scale, double threshold) const {
+    int h(GetNumWindows() - 1);
+    for (; h >= 0; --h) {
+      if (scale * GetRms(h) > threshold) {
+        break;
+      }
+    }
+    return h;
+  }
+
+ private:
+  int frame_shift_;
+  int num_shifts_per_frame_;
+  int num_channels_;
+  int num_frames_in_shift_;
+  double sqr_in_shift_;
+  int max_amplitude_;
+  double max_rms_;
+  std::vector<double> prefix_;
+};
+
+#endif  // CALLPORTAUDIO_SRC_FRAME_ENERGY_H_
@@ -1,956 +1,2936 @@
-// ------------------------------------------------------------------------ //
-// Copyright 2016 Nagoya Institute of Technology                            //
-//                                                                          //
-// Licensed under the Apache License, Version 2.0 (the "License");          //
-// you may not use this file except in compliance with the License.         //
-// You may obtain a copy of the License at                                  //
-//                                                                          //
-//     http://www.apache.org/licenses/LICENSE-2.0                           //
-//                                                                          //
-// Unless required by applicable law or agreed to in writing, software      //
-// distributed under the License is distributed on an "AS IS" BASIS,        //
-// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
-// See the License for the specific language governing permissions and      //
-// limitations under the License.                                           //
-// ------------------------------------------------------------------------ //
-
-#include "jp_ac_nitech_sp_voist_CallPortAudio.h"
-
-#include <cmath>
-#include <cstdio>
-#include <cstdlib>
-#include <cstring>
-#include <iostream>
-
-#include "portaudio.h"
-
-#pragma warning(disable : 4996)  // fopen_s
-
-class CallPortAudio {
- public:
-  enum PlaybackEvent {
-    None,
-    Beep,
-    Sample,
-    VoiceOrg,
-    VoiceCut,
-    VoiceTmp,
-    VoiceWav,
-  };
-
-  CallPortAudio()
-      : record_data_(NULL),
-        frame_(0),
-        sample_rate_(48000),
-        sample_rate_for_beep_(48000),
-        sample_rate_for_sample_(20000),
-        sample_size_(3),
-        sample_size_for_beep_(3),
-        sample_size_for_sample_(2),
-        num_channels_(1),
-        num_channels_for_beep_(1),
-        num_channels_for_sample_(1),
-        frame_length_(25),
-        frame_shift_(5),
-        frames_per_buffer_(1024),
-        max_recording_time_(20000),
-        min_top_silence_(400),
-        min_end_silence_(600),
-        silence_level_(0.1),
-        normalization_ratio_(0.15),
-        open_(false),
-        record_(false),
-        playback_(false) {
-  }
-
-  ~CallPortAudio() {
-  }
-
-  void SetSampleRate(int rate) {
-    sample_rate_ = rate;
-  }
-
-  void SetSampleRateForBeep(int rate) {
-    sample_rate_for_beep_ = rate;
-  }
-
-  void SetSampleRateForSample(int rate) {
-    sample_rate_for_sample_ = rate;
-  }
-
-  void SetSampleSize(int size) {
-    sample_size_ = size;
-  }
-
-  void SetSampleSizeForBeep(int size) {
-    sample_size_for_beep_ = size;
-  }
-
-  void SetSampleSizeForSample(int size) {
-    sample_size_for_sample_ = size;
-  }
-
-  void SetNumChannels(int num) {
-    num_channels_ = num;
-  }
-
-  void SetNumChannelsForBeep(int num) {
-    num_channels_for_beep_ = num;
-  }
-
-  void SetNumChannelsForSample(int num) {
-    num_channels_for_sample_ = num;
-  }
-
-  void SetFrameLength(int time) {
-    frame_length_ = time;
-  }
-
-  void SetFrameShift(int time) {
-    frame_shift_ = time;
-  }
-
-  void SetFramesPerBuffer(int num) {
-    frames_per_buffer_ = num;
-  }
-
-  void SetMaxRecordingTime(int time) {
-    max_recording_time_ = time;
-  }
-
-  void SetMinTopSilence(int time) {
-    min_top_silence_ = time;
-  }
-
-  void SetMinEndSilence(int time) {
-    min_end_silence_ = time;
-  }
-
-  void SetSilenceLevel(double level) {
-    silence_level_ = level;
-  }
-
-  void SetNormalizationRatio(double ratio) {
-    normalization_ratio_ = ratio;
-  }
-
-  int GetSampleRate() const {
-    return sample_rate_;
-  }
-
-  int GetSampleRateForBeep() const {
-    return sample_rate_for_beep_;
-  }
-
-  int GetSampleRateForSample() const {
-    return sample_rate_for_sample_;
-  }
-
-  int GetSampleSize() const {
-    return sample_size_;
-  }
-
-  int GetSampleSizeForBeep() const {
-    return sample_size_for_beep_;
-  }
-
-  int GetSampleSizeForSample() const {
-    return sample_size_for_sample_;
-  }
-
-  int GetNumChannels() const {
-    return num_channels_;
-  }
-
-  int GetNumChannelsForBeep() const {
-    return num_channels_for_beep_;
-  }
-
-  int GetNumChannelsForSample() const {
-    return num_channels_for_sample_;
-  }
-
-  int GetFrameLength() const {
-    return frame_length_;
-  }
-
-  int GetFrameShift() const {
-    return frame_shift_;
-  }
-
-  int GetFramesPerBuffer() const {
-    return frames_per_buffer_;
-  }
-
-  int GetMaxRecordingTime() const {
-    return max_recording_time_;
-  }
-
-  int GetMinTopSilence() const {
-    return min_top_silence_;
-  }
-
-  int GetMinEndSilence() const {
-    return min_end_silence_;
-  }
-
-  double GetSilenceLevel() const {
-    return silence_level_;
-  }
-
-  double GetNormalizationRatio() const {
-    return normalization_ratio_;
-  }
-
-  bool OpenStream(JNIEnv *env, jobject obj) {
-    PaError error;
-
-    error = Pa_Initialize();
-    if (error != paNoError) {
-      Terminate(error, 0010, NULL);
-      return false;
-    }
-
-    PaStreamParameters parameters;
-    parameters.device = Pa_GetDefaultInputDevice();
-    if (parameters.device == paNoDevice) {
-      Terminate(error, 0020, NULL);
-      return false;
-    }
-    parameters.channelCount = num_channels_;
-    parameters.sampleFormat = GetSampleFormat(sample_size_);
-    parameters.suggestedLatency =
-        Pa_GetDeviceInfo(parameters.device)->defaultLowInputLatency;
-    parameters.hostApiSpecificStreamInfo = NULL;
-
-    PaStream *stream;
-    error = Pa_OpenStream(&stream, &parameters, NULL, sample_rate_,
-                          num_channels_ * frames_per_buffer_, paClipOff, NULL,
-                          NULL);
-    if (error != paNoError) {
-      Terminate(error, 0030, NULL);
-      return false;
-    }
-
-    error = Pa_StartStream(stream);
-    if (error != paNoError) {
-      Terminate(error, 0040, NULL);
-      return false;
-    }
-
-    // Allocate memory.
-    const int max_frame(sample_rate_ * max_recording_time_ / 1000);
-    record_data_ = static_cast<int *>(
-        std::malloc(sizeof(int) * max_frame * num_channels_));
-    if (record_data_ == NULL) {
-      std::cerr << "Cannot allocate memory to record voice" << std::endl;
-      Terminate(NULL);
-      return false;
-    }
-
-    // Initialize.
-    std::memset(record_data_, 0, sizeof(int) * max_frame * num_channels_);
-    frame_ = 0;
-
-    std::cout << "*** Start Recording ***" << std::endl << std::endl;
-
-    const jclass j_class(env->GetObjectClass(obj));
-    const jfieldID j_field(env->GetFieldID(j_class, "level", "I"));
-
-    char *buffer(
-        static_cast<char *>(std::malloc(sample_size_ * num_channels_)));
-    if (buffer == NULL) {
-      std::cerr << "Cannot allocate memory for buffer" << std::endl;
-      Terminate(record_data_);
-      return false;
-    }
-
-    open_ = true;
-
-    while (open_) {
-      error = Pa_ReadStream(stream, buffer, 1);
-      if (error != paNoError) {
-        std::free(buffer);
-        Terminate(error, 0050, record_data_);
-        return false;
-      }
-
-      bool wrote(false);
-      int sum(0);
-      for (int i(0); i < num_channels_; ++i) {
-        // Convert from x-byte to 4-byte integer.
-        int value(0);
-        if (sample_size_ == 2) {
-          value = Int16ToInt(buffer + sample_size_ * i);
-        } else if (sample_size_ == 3) {
-          value = Int24ToInt(buffer + sample_size_ * i);
-        } else if (sample_size_ == 4) {
-          value = Int32ToInt(buffer + sample_size_ * i);
-        } else {
-          std::free(buffer);
-          Terminate(error, 0055, record_data_);
-          return false;
-        }
-
-        // Record.
-        if (record_ && frame_ < max_frame) {
-          record_data_[num_channels_ * frame_ + i] = value;
-          wrote = true;
-        }
-
-        sum += value;
-      }
-      if (wrote) ++frame_;
-
-      // Get sound level.
-      const int level(
-          static_cast<int>(std::abs(static_cast<double>(sum) / num_channels_)));
-      if (env->GetIntField(obj, j_field) < level) {
-        env->SetIntField(obj, j_field, level);
-      }
-    }
-
-    std::free(buffer);
-
-    error = Pa_CloseStream(stream);
-    if (error != paNoError) {
-      Terminate(error, 0060, record_data_);
-      return false;
-    }
-
-    std::cout << std::endl << "*** End Recording ***" << std::endl;
-
-    Terminate(record_data_);
-
-    return true;
-  }
-
-  void CloseStream() {
-    open_ = false;
-  }
-
-  bool IsOpen() const {
-    return open_;
-  }
-
-  bool Playback(JNIEnv *env, jobject obj, jstring file_name, jint event) {
-    std::cout << "Call Playback()" << std::endl;
-
-    int sample_rate;
-    int sample_size;
-    int num_channels;
-    if (event == Beep) {
-      sample_rate = sample_rate_for_beep_;
-      sample_size = sample_size_for_beep_;
-      num_channels = num_channels_for_beep_;
-    } else if (event == Sample) {
-      sample_rate = sample_rate_for_sample_;
-      sample_size = sample_size_for_sample_;
-      num_channels = num_channels_for_sample_;
-    } else {
-      sample_rate = sample_rate_;
-      sample_size = sample_size_;
-      num_channels = num_channels_;
-    }
-
-    std::cout << "  Sample rate: " << sample_rate << std::endl;
-    std::cout << "  Sample size: " << sample_size << std::endl;
-    std::cout << "  Channels: " << num_channels << std::endl;
-
-    PaError error;
-    error = Pa_Initialize();
-    if (error != paNoError) {
-      Terminate(error, 0110, NULL);
-      return false;
-    }
-
-    PaStreamParameters parameters;
-    parameters.device = Pa_GetDefaultOutputDevice();
-    if (parameters.device == paNoDevice) {
-      Terminate(error, 0120, NULL);
-      return false;
-    }
-    parameters.channelCount = num_channels;
-    parameters.sampleFormat = GetSampleFormat(sample_size);
-    parameters.suggestedLatency =
-        Pa_GetDeviceInfo(parameters.device)->defaultLowOutputLatency;
-    parameters.hostApiSpecificStreamInfo = NULL;
-
-    PaStream *stream;
-    error =
-        Pa_OpenStream(&stream, NULL, &parameters, sample_rate,
-                      num_channels * frames_per_buffer_, paClipOff, NULL, NULL);
-    if (error != paNoError) {
-      Terminate(error, 0130, NULL);
-      return false;
-    }
-
-    error = Pa_StartStream(stream);
-    if (error != paNoError) {
-      Terminate(error, 0140, NULL);
-      return false;
-    }
-
-    // Open file.
-    const char *file(env->GetStringUTFChars(file_name, 0));
-    FILE *fp(std::fopen(file, "rb"));
-    if (fp == NULL) {
-      std::cerr << "Cannot open " << file << std::endl;
-      Terminate(NULL);
-      return false;
-    }
-
-    std::cout << "  Playback: " << file << std::endl;
-
-    // Playback.
-    char *buffer(static_cast<char *>(std::malloc(sample_size * num_channels)));
-    if (buffer == NULL) {
-      std::cerr << "Cannot allocate memory for buffer" << std::endl;
-      std::fclose(fp);
-      Terminate(NULL);
-      return false;
-    }
-
-    playback_ = true;
-    while (num_channels == std::fread(buffer, sample_size, num_channels, fp)) {
-      error = Pa_WriteStream(stream, buffer, 1);
-      if (error != paNoError) {
-        std::fclose(fp);
-        Terminate(error, 0160, buffer);
-        break;
-      }
-      if (!playback_) {
-        break;
-      }
-    }
-    playback_ = false;
-    std::free(buffer);
-
-    std::fclose(fp);
-
-    error = Pa_CloseStream(stream);
-    if (error != paNoError) {
-      Terminate(error, 0170, NULL);
-      return false;
-    }
-
-    std::cout << "  Done" << std::endl;
-
-    return true;
-  }
-
-  void StopPlayback() {
-    playback_ = false;
-  }
-
-  void Record() {
-    frame_ = 0;
-    record_ = true;
-  }
-
-  void StopRecording() {
-    record_ = false;
-  }
-
-  bool Finalize(JNIEnv *env, jobject obj, jstring org_file_name,
-                jstring cut_file_name, jboolean environment) {
-    std::cout << "Call Finalize()" << std::endl;
-
-    const jclass j_class(env->GetObjectClass(obj));
-    jfieldID j_field;
-
-    // Write record data.
-    const char *org_file(env->GetStringUTFChars(org_file_name, 0));
-    FILE *org_fp(std::fopen(org_file, "wb"));
-    if (org_fp == NULL) {
-      std::cerr << "Cannot open " << org_file << std::endl;
-      return false;
-    }
-    std::cout << "  Writing data to " << org_file << " " << frame_ << std::endl;
-    for (int i(0); i < frame_ * num_channels_; ++i) {
-      std::fwrite(&record_data_[i], sample_size_, 1, org_fp);
-    }
-    std::fclose(org_fp);
-
-    // Calculate RMS.
-    const int frame_length_pt(sample_rate_ * frame_length_ / 1000);
-    const int frame_shift_pt(sample_rate_ * frame_shift_ / 1000);
-    double max_rms(0.0);
-    for (int i(0); i + frame_length_pt < frame_; i += frame_shift_pt) {
-      double sqr(0.0);
-      for (int j(i); j < i + frame_length_pt; ++j) {
-        for (int k(0); k < num_channels_; ++k) {
-          int l(num_channels_ * j + k);
-          sqr += static_cast<double>(record_data_[l]) * record_data_[l];
-        }
-      }
-      const double rms(std::sqrt(sqr / frame_length_pt / num_channels_));
-      if (rms > max_rms) {
-        max_rms = rms;
-      }
-    }
-
-    int *normalized_data(
-        static_cast<int *>(std::malloc(sizeof(int) * frame_ * num_channels_)));
-    if (normalized_data == NULL) {
-      std::cerr << "Cannot allocate memory to write normalized data"
-                << std::endl;
-      return false;
-    }
-
-    // Normalize data.
-    const double max_amplitude(std::pow(2.0, (sample_size_ * 8)) * 0.5);
-    const double max_normalized_amplitude(max_amplitude * normalization_ratio_);
-    const double scale((environment || max_rms == 0.0)
-                           ? 1.0
-                           : max_normalized_amplitude / max_rms);
-    for (int i(0); i < frame_ * num_channels_; ++i) {
-      normalized_data[i] = static_cast<int>(scale * record_data_[i]);
-    }
-
-    // Set maximum amplitude ratio.
-    int max(0);
-    for (int i(0); i < frame_ * num_channels_; ++i) {
-      int amplitude(std::abs(record_data_[i]));
-      if (amplitude > max) {
-        max = amplitude;
-      }
-    }
-    j_field = env->GetFieldID(j_class, "maxAmplitude", "D");
-    env->SetDoubleField(obj, j_field, 100.0 * max / max_amplitude);
-
-    // Find silence intervals.
-    // [ 0 .. top_file .. end_file .. frame_ ]
-
-    const double silence_rms(silence_level_ * max_normalized_amplitude);
-
-    // Find top silence.
-    int top_file;
-    int top_speech;
-    double top_silence;
-    if (environment || silence_level_ == 0.0) {
-      top_file = sample_rate_ * min_top_silence_ / 1000;
-      top_speech = top_file;
-      top_silence = static_cast<double>(min_top_silence_) / 1000;
-    } else {
-      int f(0);
-      for (; f + frame_length_pt < frame_; f += frame_shift_pt) {
-        double sqr(0.0);
-        for (int i(f); i < f + frame_length_pt; ++i) {
-          for (int k(0); k < num_channels_; ++k) {
-            int l(num_channels_ * i + k);
-            sqr += static_cast<double>(normalized_data[l]) * normalized_data[l];
-          }
-        }
-        if (std::sqrt(sqr / frame_length_pt / num_channels_) > silence_rms) {
-          break;
-        }
-      }
-      top_file = f - sample_rate_ * min_top_silence_ / 1000;
-      top_speech = f;
-      top_silence = static_cast<double>(f) / sample_rate_;
-      std::cout << "  top: " << top_file << " (accept if top > 0)" << std::endl;
-    }
-    j_field = env->GetFieldID(j_class, "topSilence", "D");
-    env->SetDoubleField(obj, j_field, top_silence);
-
-    // Find end silence.
-    int end_speech;
-    int end_file;
-    double end_silence;
-    if (environment || silence_level_ == 0.0) {
-      end_file = frame_ - sample_rate_ * min_end_silence_ / 1000;
-      end_speech = end_file;
-      end_silence = static_cast<double>(min_end_silence_) / 1000;
-    } else {
-      int f(frame_ - 1);
-      for (; f - frame_length_pt >= 0; f -= frame_shift_pt) {
-        double sqr = 0.0;
-        for (int i(f); i > f - frame_length_pt; --i) {
-          for (int k(0); k < num_channels_; ++k) {
-            int l(num_channels_ * i + k);
-            sqr += static_cast<double>(normalized_data[l]) * normalized_data[l];
-          }
-        }
-        if (std::sqrt(sqr / frame_length_pt / num_channels_) > silence_rms) {
-          break;
-        }
-      }
-      end_file = f + sample_rate_ * min_end_silence_ / 1000;
-      end_speech = f;
-      end_silence = static_cast<double>(frame_ - f) / sample_rate_;
-      std::cout << "  end: " << end_file << " (accept if end < " << frame_
-                << ")" << std::endl;
-    }
-    j_field = env->GetFieldID(j_class, "endSilence", "D");
-    env->SetDoubleField(obj, j_field, end_silence);
-
-    // Failed to record.
-    if (top_file < 0 || end_file >= frame_ || top_file >= end_file) {
-      std::free(normalized_data);
-      return false;
-    }
-
-    // Set power.
-    double sqr(0.0);
-    for (int i(top_speech); i < end_speech; ++i) {
-      for (int k(0); k < num_channels_; ++k) {
-        int l(num_channels_ * i + k);
-        sqr += static_cast<double>(record_data_[l]) * record_data_[l];
-      }
-    }
-    j_field = env->GetFieldID(j_class, "power", "D");
-    env->SetDoubleField(
-        obj, j_field,
-        10.0 * std::log10(sqr / (end_speech - top_speech) / num_channels_));
-
-    // Write normalized data.
-    const char *cut_file(env->GetStringUTFChars(cut_file_name, 0));
-    FILE *cut_fp(fopen(cut_file, "wb"));
-    if (cut_fp == NULL) {
-      std::cerr << "Cannot open " << cut_file << std::endl;
-      std::free(normalized_data);
-      return false;
-    }
-    std::cout << "  Writing data to " << cut_file << " " << end_file
-              << std::endl;
-    for (int i(top_file * num_channels_); i < end_file * num_channels_; ++i) {
-      std::fwrite(&normalized_data[i], sample_size_, 1, cut_fp);
-    }
-    std::fclose(cut_fp);
-
-    std::cout << "  Done" << std::endl;
-
-    std::free(normalized_data);
-
-    return true;
-  }
-
- private:
-  void Terminate(void *data) const {
-    if (data) {
-      std::free(data);
-      data = NULL;
-    }
-    Pa_Terminate();
-  }
-
-  void Terminate(PaError error, int error_code, void *data) const {
-    std::cerr << "Error in PortAudio" << std::endl;
-    std::cerr << "  Error number: " << error << std::endl;
-    std::cerr << "  Error message: " << Pa_GetErrorText(error) << std::endl;
-    std::cerr << "  Error code: " << error_code << std::endl;
-    Terminate(data);
-  }
-
-  PaSampleFormat GetSampleFormat(int sample_size) const {
-    switch (sample_size) {
-      case 1:
-        return paInt8;
-      case 2:
-        return paInt16;
-      case 3:
-        return paInt24;
-      case 4:
-        return paInt32;
-      default:
-        return 0;
-    }
-  }
-
-  int Int16ToInt(void *x) const {
-    int y(*(static_cast<int *>(x)) & 0x0000FFFF);
-    if (y >> 15 == 1) {
-      y = y | 0xFFFF0000;
-    }
-    long long xl(y);
-    return static_cast<int>(xl);
-  }
-
-  int Int24ToInt(void *x) const {
-    int y(*(static_cast<int *>(x)) & 0x00FFFFFF);
-    if (y >> 23 == 1) {
-      y = y | 0xFF000000;
-    }
-    long long xl(y);
-    return static_cast<int>(xl);
-  }
-
-  int Int32ToInt(void *x) const {
-    return *(static_cast<int *>(x));
-  }
-
-  int *record_data_;
-  int frame_;
-
-  int sample_rate_;  // [Hz]
-  int sample_rate_for_beep_;
-  int sample_rate_for_sample_;
-  int sample_size_;  // [byte]
-  int sample_size_for_beep_;
-  int sample_size_for_sample_;
-  int num_channels_;  // [ch]
-  int num_channels_for_beep_;
-  int num_channels_for_sample_;
-  int frame_length_;        // [msec]
-  int frame_shift_;         // [msec]
-  int frames_per_buffer_;   // [frame]
-  int max_recording_time_;  // [msec]
-  int min_top_silence_;     // [msec]
-  int min_end_silence_;     // [msec]
-  double silence_level_;
-  double normalization_ratio_;
-
-  bool open_;
-  bool record_;
-  bool playback_;
-};
-
-CallPortAudio *port_audio = NULL;
-
-JNIEXPORT void JNICALL Java_jp_ac_nitech_sp_voist_CallPortAudio_setSampleRate(
-    JNIEnv *, jobject, jint rate) {
-  if (port_audio) {
-    port_audio->SetSampleRate(rate);
-  }
-}
-
-JNIEXPORT void JNICALL Java_jp_ac_nitech_sp_voist_CallPortAudio_setSampleSize(
-    JNIEnv *, jobject, jint size) {
-  if (port_audio) {
-    port_audio->SetSampleSize(size);
-  }
-}
-
-JNIEXPORT void JNICALL Java_jp_ac_nitech_sp_voist_CallPortAudio_setNumChannels(
-    JNIEnv *, jobject, jint num) {
-  if (port_audio) {
-    port_audio->SetNumChannels(num);
-  }
-}
-
-JNIEXPORT void JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_setSampleRateForBeep(JNIEnv *, jobject,
-                                                              jint rate) {
-  if (port_audio) {
-    port_audio->SetSampleRateForBeep(rate);
-  }
-}
-
-JNIEXPORT void JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_setSampleSizeForBeep(JNIEnv *, jobject,
-                                                              jint size) {
-  if (port_audio) {
-    port_audio->SetSampleSizeForBeep(size);
-  }
-}
-
-JNIEXPORT void JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_setNumChannelsForBeep(JNIEnv *,
-                                                               jobject,
-                                                               jint num) {
-  if (port_audio) {
-    port_audio->SetNumChannelsForBeep(num);
-  }
-}
-
-JNIEXPORT void JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_setSampleRateForSample(JNIEnv *,
-                                                                jobject,
-                                                                jint rate) {
-  if (port_audio) {
-    port_audio->SetSampleRateForSample(rate);
-  }
-}
-
-JNIEXPORT void JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_setSampleSizeForSample(JNIEnv *,
-                                                                jobject,
-                                                                jint size) {
-  if (port_audio) {
-    port_audio->SetSampleSizeForSample(size);
-  }
-}
-
-JNIEXPORT void JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_setNumChannelsForSample(JNIEnv *,
-                                                                 jobject,
-                                                                 jint num) {
-  if (port_audio) {
-    port_audio->SetNumChannelsForSample(num);
-  }
-}
-
-JNIEXPORT void JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_setMaxRecordingTime(JNIEnv *, jobject,
-                                                             jint time) {
-  if (port_audio) {
-    port_audio->SetMaxRecordingTime(time);
-  }
-}
-
-JNIEXPORT void JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_setMinTopSilence(JNIEnv *, jobject,
-                                                          jint time) {
-  if (port_audio) {
-    port_audio->SetMinTopSilence(time);
-  }
-}
-
-JNIEXPORT void JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_setMinEndSilence(JNIEnv *, jobject,
-                                                          jint time) {
-  if (port_audio) {
-    port_audio->SetMinEndSilence(time);
-  }
-}
-
-JNIEXPORT void JNICALL Java_jp_ac_nitech_sp_voist_CallPortAudio_setSilenceLevel(
-    JNIEnv *, jobject, jdouble level) {
-  if (port_audio) {
-    port_audio->SetSilenceLevel(level);
-  }
-}
-
-JNIEXPORT void JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_setNormalizationRatio(JNIEnv *,
-                                                               jobject,
-                                                               jdouble ratio) {
-  if (port_audio) {
-    port_audio->SetNormalizationRatio(ratio);
-  }
-}
-
-JNIEXPORT jint JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_getSampleRate(JNIEnv *, jobject) {
-  return port_audio ? port_audio->GetSampleRate() : 0;
-}
-
-JNIEXPORT jint JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_getSampleSize(JNIEnv *, jobject) {
-  return port_audio ? port_audio->GetSampleSize() : 0;
-}
-
-JNIEXPORT jint JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_getNumChannels(JNIEnv *, jobject) {
-  return port_audio ? port_audio->GetNumChannels() : 0;
-}
-
-JNIEXPORT jint JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_getSampleRateForBeep(JNIEnv *,
-                                                              jobject) {
-  return port_audio ? port_audio->GetSampleRateForBeep() : 0;
-}
-
-JNIEXPORT jint JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_getSampleSizeForBeep(JNIEnv *,
-                                                              jobject) {
-  return port_audio ? port_audio->GetSampleSizeForBeep() : 0;
-}
-
-JNIEXPORT jint JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_getNumChannelsForBeep(JNIEnv *,
-                                                               jobject) {
-  return port_audio ? port_audio->GetNumChannelsForBeep() : 0;
-}
-
-JNIEXPORT jint JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_getSampleRateForSample(JNIEnv *,
-                                                                jobject) {
-  return port_audio ? port_audio->GetSampleRateForSample() : 0;
-}
-
-JNIEXPORT jint JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_getSampleSizeForSample(JNIEnv *,
-                                                                jobject) {
-  return port_audio ? port_audio->GetSampleSizeForSample() : 0;
-}
-
-JNIEXPORT jint JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_getNumChannelsForSample(JNIEnv *,
-                                                                 jobject) {
-  return port_audio ? port_audio->GetNumChannelsForSample() : 0;
-}
-
-JNIEXPORT jint JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_getMaxRecordingTime(JNIEnv *,
-                                                             jobject) {
-  return port_audio ? port_audio->GetMaxRecordingTime() : 0;
-}
-
-JNIEXPORT jint JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_getMinTopSilence(JNIEnv *, jobject) {
-  return port_audio ? port_audio->GetMinTopSilence() : 0;
-}
-
-JNIEXPORT jint JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_getMinEndSilence(JNIEnv *, jobject) {
-  return port_audio ? port_audio->GetMinEndSilence() : 0;
-}
-
-JNIEXPORT jdouble JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_getSilenceLevel(JNIEnv *, jobject) {
-  return port_audio ? port_audio->GetSilenceLevel() : 0.0;
-}
-
-JNIEXPORT jdouble JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_getNormalizationRatio(JNIEnv *,
-                                                               jobject) {
-  return port_audio ? port_audio->GetNormalizationRatio() : 0.0;
-}
-
-JNIEXPORT void JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_createInstance(JNIEnv *, jobject) {
-  port_audio = new CallPortAudio();
-}
-
-JNIEXPORT jboolean JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_openStream(JNIEnv *env, jobject obj) {
-  return port_audio ? port_audio->OpenStream(env, obj) : false;
-}
-
-JNIEXPORT void JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_closeStream(JNIEnv *, jobject) {
-  if (port_audio) {
-    port_audio->CloseStream();
-  }
-}
-
-JNIEXPORT jboolean JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_isOpen(JNIEnv *, jobject) {
-  return port_audio ? port_audio->IsOpen() : false;
-}
-
-JNIEXPORT jboolean JNICALL Java_jp_ac_nitech_sp_voist_CallPortAudio_playback(
-    JNIEnv *env, jobject obj, jstring file_name, jint event) {
-  return port_audio ? port_audio->Playback(env, obj, file_name, event) : false;
-}
-
-JNIEXPORT void JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_stopPlayback(JNIEnv *, jobject) {
-  if (port_audio) {
-    port_audio->StopPlayback();
-  }
-}
-
-JNIEXPORT void JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_record(JNIEnv *, jobject) {
-  if (port_audio) {
-    port_audio->Record();
-  }
-}
-
-JNIEXPORT void JNICALL
-Java_jp_ac_nitech_sp_voist_CallPortAudio_stopRecording(JNIEnv *, jobject) {
-  if (port_audio) {
-    port_audio->StopRecording();
-  }
-}
-
-JNIEXPORT jboolean JNICALL Java_jp_ac_nitech_sp_voist_CallPortAudio_finalize(
-    JNIEnv *env, jobject obj, jstring org_file_name, jstring cut_file_name,
-    jboolean environment) {
-  return port_audio ? port_audio->Finalize(env, obj, org_file_name,
-                                           cut_file_name, environment)
-                    : false;
-}
+// ------------------------------------------------------------------------ //
+// Copyright 2016 Nagoya Institute of Technology                            //
+//                                                                          //
+// Licensed under the Apache License, Version 2.0 (the "License");          //
+// you may not use this file except in compliance with the License.         //
+// You may obtain a copy of the License at                                  //
+//                                                                          //
+//     http://www.apache.org/licenses/LICENSE-2.0                           //
+//                                                                          //
+// Unless required by applicable law or agreed to in writing, software      //
+// distributed under the License is distributed on an "AS IS" BASIS,        //
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
+// See the License for the specific language governing permissions and      //
+// limitations under the License.                                           //
+// ------------------------------------------------------------------------ //
+
+#include "jp_ac_nitech_sp_voist_CallPortAudio.h"
+
+#include <algorithm>
+#include <atomic>
+#include <chrono>
+#include <climits>
+#include <cmath>
+#include <condition_variable>
+#include <cstddef>
+#include <cstdio>
+#include <cstdlib>
+#include <cstring>
+#include <deque>
+#include <iostream>
+#include <mutex>
+#include <string>
+#include <thread>
+#include <vector>
+
+#include "frame_energy.h"
+#include "peak_pyramid.h"
+#include "portaudio.h"
+
+#pragma warning(disable : 4996)  // fopen_s
+
+// Lock-free ring buffer for a single producer and a single consumer.
+// The PortAudio callback writes to it and the stream thread reads from it,
+// so neither side ever blocks the other.
+class RingBuffer {
+ public:
+  RingBuffer() : mask_(0), write_index_(0), read_index_(0) {
+  }
+
+  ~RingBuffer() {
+  }
+
+  bool Allocate(size_t size) {
+    size_t capacity(1);
+    while (capacity < size) {
+      capacity <<= 1;
+    }
+    buffer_.assign(capacity, 0);
+    mask_ = capacity - 1;
+    write_index_ = 0;
+    read_index_ = 0;
+    return buffer_.size() == capacity;
+  }
+
+  void Release() {
+    std::vector<char>().swap(buffer_);
+    mask_ = 0;
+  }
+
+  // Write all of the given data or nothing.
+  bool Write(const char *data, size_t size) {
+    const size_t w(write_index_.load(std::memory_order_relaxed));
+    const size_t r(read_index_.load(std::memory_order_acquire));
+    if (buffer_.size() - (w - r) < size) {
+      return false;
+    }
+    const size_t offset(w & mask_);
+    const size_t first(std::min(size, buffer_.size() - offset));
+    std::memcpy(&buffer_[offset], data, first);
+    std::memcpy(&buffer_[0], data + first, size - first);
+    write_index_.store(w + size, std::memory_order_release);
+    return true;
+  }
+
+  // Read at most the given size in multiples of unit.
+  size_t Read(char *data, size_t size, size_t unit) {
+    const size_t r(read_index_.load(std::memory_order_relaxed));
+    const size_t w(write_index_.load(std::memory_order_acquire));
+    size_t n(std::min(size, w - r));
+    n -= n % unit;
+    if (n == 0) {
+      return 0;
+    }
+    const size_t offset(r & mask_);
+    const size_t first(std::min(n, buffer_.size() - offset));
+    std::memcpy(data, &buffer_[offset], first);
+    std::memcpy(data + first, &buffer_[0], n - first);
+    read_index_.store(r + n, std::memory_order_release);
+    return n;
+  }
+
+  // Number of bytes written so far, which is called by the producer.
+  size_t GetWriteIndex() const {
+    return write_index_.load(std::memory_order_relaxed);
+  }
+
+  // Number of bytes read so far, which is called by the consumer.
+  size_t GetReadIndex() const {
+    return read_index_.load(std::memory_order_relaxed);
+  }
+
+  size_t GetReadableSize() const {
+    return write_index_.load(std::memory_order_acquire) -
+           read_index_.load(std::memory_order_acquire);
+  }
+
+  // Discard the data written before the given index, which is called by the
+  // consumer.
+  void SkipTo(size_t index) {
+    const size_t r(read_index_.load(std::memory_order_relaxed));
+    if (static_cast<std::ptrdiff_t>(index - r) > 0) {
+      read_index_.store(index, std::memory_order_release);
+    }
+  }
+
+ private:
+  std::vector<char> buffer_;
+  size_t mask_;
+  std::atomic<size_t> write_index_;
+  std::atomic<size_t> read_index_;
+};
+
+// Appends captured blocks to a file on a background thread, so that the
+// stream thread never waits for the disk and memory use does not depend
+// on the length of a take. The samples are kept at their native width in
+// chunks of a fixed size, which are reused once they are written, so that
+// a take waiting for the disk never needs one large allocation.
+class TakeWriter {
+ public:
+  TakeWriter() : fp_(NULL), closing_(false), failed_(false), size_(0) {
+  }
+
+  ~TakeWriter() {
+    Close();
+  }
+
+  bool IsOpen() const {
+    return fp_ != NULL;
+  }
+
+  bool Open(const std::string &file_name) {
+    Close();
+    fp_ = std::fopen(file_name.c_str(), "wb");
+    if (fp_ == NULL) {
+      std::cerr << "Cannot open " << file_name << std::endl;
+      return false;
+    }
+    closing_ = false;
+    failed_ = false;
+    size_ = 0;
+    thread_ = std::thread(&TakeWriter::Run, this);
+    return true;
+  }
+
+  void Append(const char *data, size_t size) {
+    while (size > 0) {
+      if (chunk_.capacity() < kChunkSize) {
+        NewChunk();
+      }
+      const size_t n(std::min(size, kChunkSize - chunk_.size()));
+      chunk_.insert(chunk_.end(), data, data + n);
+      data += n;
+      size -= n;
+      if (chunk_.size() == kChunkSize) {
+        PushChunk();
+      }
+    }
+  }
+
+  // Write the remaining chunks and close the file.
+  bool Close() {
+    if (fp_ == NULL) {
+      return true;
+    }
+    if (!chunk_.empty()) {
+      PushChunk();
+    }
+    {
+      std::lock_guard<std::mutex> lock(mutex_);
+      closing_ = true;
+    }
+    condition_.notify_one();
+    thread_.join();
+    const bool closed(std::fclose(fp_) == 0);
+    fp_ = NULL;
+    return closed && !failed_;
+  }
+
+  // Number of bytes written so far. This is exact after Close().
+  long long GetSize() const {
+    return size_;
+  }
+
+ private:
+  static const size_t kChunkSize = 1 << 16;
+
+  // Take a written chunk, or allocate one if there is none.
+  void NewChunk() {
+    {
+      std::lock_guard<std::mutex> lock(mutex_);
+      if (!free_chunks_.empty()) {
+        chunk_.swap(free_chunks_.back());
+        free_chunks_.pop_back();
+      }
+    }
+    chunk_.clear();
+    chunk_.reserve(kChunkSize);
+  }
+
+  void PushChunk() {
+    {
+      std::lock_guard<std::mutex> lock(mutex_);
+      chunks_.push_back(std::vector<char>());
+      chunks_.back().swap(chunk_);
+    }
+    condition_.notify_one();
+  }
+
+  void Run() {
+    std::vector<char> chunk;
+    while (true) {
+      {
+        std::unique_lock<std::mutex> lock(mutex_);
+        if (!chunk.empty()) {
+          chunk.clear();
+          free_chunks_.push_back(std::vector<char>());
+          free_chunks_.back().swap(chunk);
+        }
+        condition_.wait(lock, [this] { return closing_ || !chunks_.empty(); });
+        if (chunks_.empty()) {
+          return;
+        }
+        chunk.swap(chunks_.front());
+        chunks_.pop_front();
+      }
+      if (std::fwrite(&chunk[0], 1, chunk.size(), fp_) != chunk.size()) {
+        failed_ = true;
+      }
+      size_ += chunk.size();
+    }
+  }
+
+  FILE *fp_;
+  std::thread thread_;
+  std::mutex mutex_;
+  std::condition_variable condition_;
+  std::vector<char> chunk_;  // chunk being filled by Append()
+  std::deque<std::vector<char> > chunks_;
+  std::vector<std::vector<char> > free_chunks_;
+  bool closing_;
+  bool failed_;
+  std::atomic<long long> size_;
+};
+
+class CallPortAudio {
+ public:
+  enum PlaybackEvent {
+    None,
+    Beep,
+    Sample,
+    VoiceOrg,
+    VoiceCut,
+    VoiceTmp,
+    VoiceWav,
+  };
+
+  CallPortAudio()
+      : frame_(0),
+        sample_rate_(48000),
+        sample_rate_for_beep_(48000),
+        sample_rate_for_sample_(20000),
+        sample_size_(3),
+        sample_size_for_beep_(3),
+        sample_size_for_sample_(2),
+        num_channels_(1),
+        num_channels_for_beep_(1),
+        num_channels_for_sample_(1),
+        float_format_(false),
+        frame_length_(25),
+        frame_shift_(5),
+        frames_per_buffer_(1024),
+        suggested_latency_(0.0),
+        capture_buffer_time_(1000),
+        playback_buffer_time_(200),
+        max_recording_time_(0),
+        pre_roll_time_(500),
+        beep_guard_time_(200),
+        min_top_silence_(400),
+        min_end_silence_(600),
+        silence_level_(0.1),
+        normalization_ratio_(0.15),
+        clip_level_(0.99),
+        max_clips_(0),
+        auto_stop_(false),
+        bytes_per_frame_(0),
+        num_overflows_(0),
+        level_buffer_(NULL),
+        num_level_slots_(0),
+        level_count_(0),
+        num_captured_frames_(0),
+        capture_origin_time_(0.0),
+        num_processed_frames_(0),
+        num_pre_roll_bytes_(0),
+        start_frame_(0),
+        earliest_frame_(-1),
+        reference_frame_(0.0),
+        start_delay_(0),
+        start_beep_id_(0),
+        recording_offset_(0.0),
+        clip_amplitude_(0),
+        num_clips_(0),
+        num_clipped_samples_(0),
+        first_clip_frame_(-1),
+        clip_notified_(false),
+        vad_level_(0.0),
+        num_vad_windows_(0),
+        last_speech_window_(-1),
+        stop_notified_(false),
+        input_latency_(0.0),
+        output_latency_(0.0),
+        output_open_(false),
+        playback_flush_index_(0),
+        playback_count_(0),
+        beep_id_(0),
+        beep_end_index_(0),
+        beep_end_id_(0),
+        beep_end_time_(-1.0),
+        probe_index_(0),
+        probe_pending_(false),
+        probe_frame_(-1),
+        probe_done_(false),
+        probe_peak_(0),
+        probe_peak_frame_(-1),
+        probe_sum_(0.0),
+        replay_(false),
+        replay_speed_(1.0),
+        replay_fp_(NULL),
+        replay_num_frames_(0),
+        replay_position_(0),
+        replay_idle_frame_(0),
+        replay_fast_(false),
+        open_(false),
+        record_(false) {
+  }
+
+  ~CallPortAudio() {
+  }
+
+  void SetSampleRate(int rate) {
+    sample_rate_ = rate;
+  }
+
+  void SetSampleRateForBeep(int rate) {
+    sample_rate_for_beep_ = rate;
+  }
+
+  void SetSampleRateForSample(int rate) {
+    sample_rate_for_sample_ = rate;
+  }
+
+  void SetSampleSize(int size) {
+    sample_size_ = size;
+  }
+
+  void SetSampleSizeForBeep(int size) {
+    sample_size_for_beep_ = size;
+  }
+
+  void SetSampleSizeForSample(int size) {
+    sample_size_for_sample_ = size;
+  }
+
+  void SetNumChannels(int num) {
+    num_channels_ = num;
+  }
+
+  void SetNumChannelsForBeep(int num) {
+    num_channels_for_beep_ = num;
+  }
+
+  void SetNumChannelsForSample(int num) {
+    num_channels_for_sample_ = num;
+  }
+
+  void SetFloatFormat(bool float_format) {
+    float_format_ = float_format;
+  }
+
+  void SetFrameLength(int time) {
+    frame_length_ = time;
+  }
+
+  void SetFrameShift(int time) {
+    frame_shift_ = time;
+  }
+
+  // Set the frames per buffer of the stream, or 0 to let the host API choose
+  // it. This takes effect when the stream is opened.
+  void SetFramesPerBuffer(int num) {
+    frames_per_buffer_ = std::max(0, num);
+  }
+
+  // Select the device by its name, which may be prefixed by the name of its
+  // host API as "MME: Microphone". The default device is used if the name is
+  // empty or not found.
+  void SetInputDevice(JNIEnv *env, jstring name) {
+    input_device_ = GetString(env, name);
+  }
+
+  void SetOutputDevice(JNIEnv *env, jstring name) {
+    output_device_ = GetString(env, name);
+  }
+
+  // Set the suggested latency [msec] of the stream, or kLowLatency and
+  // kHighLatency for the default latencies of the devices.
+  void SetSuggestedLatency(double time) {
+    suggested_latency_ = time;
+  }
+
+  void SetRecordingFile(JNIEnv *env, jstring file_name) {
+    const std::string file(GetString(env, file_name));
+    std::lock_guard<std::mutex> lock(take_mutex_);
+    recording_file_ = file;
+  }
+
+  // Captured data is streamed to the recording file, so this only asks Java
+  // to stop a take of this length [msec]. No limit if 0.
+  void SetMaxRecordingTime(int time) {
+    max_recording_time_ = std::max(0, time);
+  }
+
+  // Set the time captured before the start of a take. This takes effect
+  // when the stream is opened.
+  void SetPreRollTime(int time) {
+    pre_roll_time_ = std::max(0, time);
+  }
+
+  // Set the time after the end of the beep which is never in a take, even in
+  // its pre-roll, so that neither the beep nor its echo is recorded.
+  void SetBeepGuardTime(int time) {
+    beep_guard_time_ = std::max(0, time);
+  }
+
+  void SetMinTopSilence(int time) {
+    min_top_silence_ = time;
+  }
+
+  void SetMinEndSilence(int time) {
+    min_end_silence_ = time;
+  }
+
+  void SetSilenceLevel(double level) {
+    silence_level_ = level;
+  }
+
+  void SetNormalizationRatio(double ratio) {
+    normalization_ratio_ = ratio;
+  }
+
+  void SetClipLevel(double level) {
+    clip_level_ = level;
+  }
+
+  void SetMaxClips(int num) {
+    max_clips_ = std::max(0, num);
+  }
+
+  // Ask Java to stop a take once min_end_silence_ of silence follows speech.
+  void SetAutoStop(bool auto_stop) {
+    auto_stop_ = auto_stop;
+  }
+
+  // Replay the given raw file in the format of the stream as the input, or
+  // silence if the name is empty, instead of opening the devices. The output
+  // is discarded. Everything else runs as with the devices, at the given
+  // multiple of real time while a take or a clip is played, see Replay().
+  // This takes effect when the stream is opened.
+  void SetReplay(JNIEnv *env, jstring file_name, double speed) {
+    replay_ = true;
+    replay_file_ = GetString(env, file_name);
+    replay_speed_ = speed;
+  }
+
+  int GetSampleRate() const {
+    return sample_rate_;
+  }
+
+  int GetSampleRateForBeep() const {
+    return sample_rate_for_beep_;
+  }
+
+  int GetSampleRateForSample() const {
+    return sample_rate_for_sample_;
+  }
+
+  int GetSampleSize() const {
+    return sample_size_;
+  }
+
+  int GetSampleSizeForBeep() const {
+    return sample_size_for_beep_;
+  }
+
+  int GetSampleSizeForSample() const {
+    return sample_size_for_sample_;
+  }
+
+  int GetNumChannels() const {
+    return num_channels_;
+  }
+
+  int GetNumChannelsForBeep() const {
+    return num_channels_for_beep_;
+  }
+
+  int GetNumChannelsForSample() const {
+    return num_channels_for_sample_;
+  }
+
+  bool IsFloatFormat() const {
+    return float_format_;
+  }
+
+  int GetFrameLength() const {
+    return frame_length_;
+  }
+
+  int GetFrameShift() const {
+    return frame_shift_;
+  }
+
+  int GetFramesPerBuffer() const {
+    return frames_per_buffer_;
+  }
+
+  jstring GetInputDevice(JNIEnv *env) const {
+    return env->NewStringUTF(input_device_.c_str());
+  }
+
+  jstring GetOutputDevice(JNIEnv *env) const {
+    return env->NewStringUTF(output_device_.c_str());
+  }
+
+  double GetSuggestedLatency() const {
+    return suggested_latency_;
+  }
+
+  // Latencies [msec] of the open stream reported by the host API
+  double GetInputLatency() const {
+    return input_latency_;
+  }
+
+  double GetOutputLatency() const {
+    return output_latency_;
+  }
+
+  // List the devices of all host APIs as AudioDevice objects.
+  jobjectArray GetDevices(JNIEnv *env) const {
+    const jclass j_class(env->FindClass("jp/ac/nitech/sp/voist/AudioDevice"));
+    if (j_class == NULL) {
+      return NULL;
+    }
+    const jmethodID j_init(env->GetMethodID(
+        j_class, "<init>", "(Ljava/lang/String;Ljava/lang/String;IIDDDDDZZ)V"));
+    if (j_init == NULL) {
+      return NULL;
+    }
+
+    PaError error;
+    error = Pa_Initialize();
+    if (error != paNoError) {
+      Terminate(error, 0210, NULL);
+      return NULL;
+    }
+
+    const int num_devices(std::max(0, static_cast<int>(Pa_GetDeviceCount())));
+    jobjectArray devices(env->NewObjectArray(num_devices, j_class, NULL));
+    for (int i(0); devices != NULL && i < num_devices; ++i) {
+      const PaDeviceInfo *info(Pa_GetDeviceInfo(i));
+      const jstring host_api(
+          env->NewStringUTF(Pa_GetHostApiInfo(info->hostApi)->name));
+      const jstring name(env->NewStringUTF(info->name));
+      const jobject device(env->NewObject(
+          j_class, j_init, host_api, name, info->maxInputChannels,
+          info->maxOutputChannels, 1000.0 * info->defaultLowInputLatency,
+          1000.0 * info->defaultHighInputLatency,
+          1000.0 * info->defaultLowOutputLatency,
+          1000.0 * info->defaultHighOutputLatency, info->defaultSampleRate,
+          static_cast<jboolean>(i == Pa_GetDefaultInputDevice()),
+          static_cast<jboolean>(i == Pa_GetDefaultOutputDevice())));
+      env->SetObjectArrayElement(devices, i, device);
+      env->DeleteLocalRef(device);
+      env->DeleteLocalRef(name);
+      env->DeleteLocalRef(host_api);
+    }
+
+    Terminate(NULL);
+    return devices;
+  }
+
+  int GetMaxRecordingTime() const {
+    return max_recording_time_;
+  }
+
+  int GetPreRollTime() const {
+    return pre_roll_time_;
+  }
+
+  int GetBeepGuardTime() const {
+    return beep_guard_time_;
+  }
+
+  int GetMinTopSilence() const {
+    return min_top_silence_;
+  }
+
+  int GetMinEndSilence() const {
+    return min_end_silence_;
+  }
+
+  double GetSilenceLevel() const {
+    return silence_level_;
+  }
+
+  double GetNormalizationRatio() const {
+    return normalization_ratio_;
+  }
+
+  double GetClipLevel() const {
+    return clip_level_;
+  }
+
+  int GetMaxClips() const {
+    return max_clips_;
+  }
+
+  bool IsAutoStop() const {
+    return auto_stop_;
+  }
+
+  // Share the level buffer allocated by Java. Its layout is
+  //   [0]              number of published blocks
+  //   [1 + m * n]      peak of the n-th slot
+  //   [2 + m * n]      RMS of the n-th slot
+  //   [3 + m * n + 2c] peak of the c-th channel of the n-th slot
+  //   [4 + m * n + 2c] RMS of the c-th channel of the n-th slot
+  // where m is kLevelSlotSize and each element is a 64-bit integer in native
+  // byte order.
+  void SetLevelBuffer(JNIEnv *env, jobject buffer) {
+    level_buffer_ = NULL;
+    num_level_slots_ = 0;
+    level_count_ = 0;
+    if (buffer == NULL) {
+      return;
+    }
+    void *address(env->GetDirectBufferAddress(buffer));
+    const jlong capacity(env->GetDirectBufferCapacity(buffer));
+    if (address == NULL || capacity < (1 + kLevelSlotSize) * 8) {
+      std::cerr << "Invalid level buffer" << std::endl;
+      return;
+    }
+    level_buffer_ = static_cast<volatile long long *>(address);
+    num_level_slots_ = static_cast<int>((capacity / 8 - 1) / kLevelSlotSize);
+    level_buffer_[0] = 0;
+  }
+
+  bool OpenStream(JNIEnv *env, jobject obj) {
+    PaError error(paNoError);
+
+    // No device is opened while replaying.
+    if (!replay_) {
+      error = Pa_Initialize();
+      if (error != paNoError) {
+        Terminate(error, 0010, NULL);
+        return false;
+      }
+    }
+
+    PaStreamParameters parameters;
+    parameters.device = replay_ ? 0 : FindDevice(input_device_, true);
+    if (parameters.device == paNoDevice) {
+      Terminate(error, 0020, NULL);
+      return false;
+    }
+    parameters.channelCount = num_channels_;
+    parameters.sampleFormat = GetSampleFormat(sample_size_, float_format_);
+    parameters.suggestedLatency =
+        replay_ ? 0.0 : GetLatency(parameters.device, true);
+    parameters.hostApiSpecificStreamInfo = NULL;
+
+    // Clips are played through the same stream, so that beeps, samples and
+    // voices are played at the clock of the capture without opening the
+    // device for every clip. The clips are converted to the format of the
+    // stream by Audio. The input is still captured if there is no output.
+    PaStreamParameters output_parameters;
+    output_parameters.device =
+        replay_ ? 0 : FindDevice(output_device_, false);
+    output_parameters.channelCount = num_channels_;
+    output_parameters.sampleFormat = parameters.sampleFormat;
+    output_parameters.hostApiSpecificStreamInfo = NULL;
+    const bool duplex(output_parameters.device != paNoDevice);
+    if (duplex) {
+      output_parameters.suggestedLatency =
+          replay_ ? 0.0 : GetLatency(output_parameters.device, false);
+    } else {
+      std::cerr << "No output device; playback is disabled" << std::endl;
+    }
+
+    if (sample_size_ < 2 || 4 < sample_size_ ||
+        (float_format_ && sample_size_ != sizeof(float))) {
+      Terminate(error, 0055, NULL);
+      return false;
+    }
+    if (num_channels_ < 1 || kMaxChannels < num_channels_) {
+      Terminate(error, 0056, NULL);
+      return false;
+    }
+
+    // The callback pushes captured frames into the ring buffer and this
+    // thread drains it block by block.
+    bytes_per_frame_ = sample_size_ * num_channels_;
+    if (!capture_buffer_.Allocate(static_cast<size_t>(bytes_per_frame_) *
+                                  sample_rate_ * capture_buffer_time_ /
+                                  1000)) {
+      std::cerr << "Cannot allocate memory for ring buffer" << std::endl;
+      Terminate(NULL);
+      return false;
+    }
+    const size_t playback_buffer_size(static_cast<size_t>(bytes_per_frame_) *
+                                      sample_rate_ * playback_buffer_time_ /
+                                      1000);
+    if (duplex && !playback_buffer_.Allocate(playback_buffer_size)) {
+      capture_buffer_.Release();
+      std::cerr << "Cannot allocate memory for ring buffer" << std::endl;
+      Terminate(NULL);
+      return false;
+    }
+    playback_flush_index_ = 0;
+    num_overflows_ = 0;
+    num_captured_frames_ = 0;
+    num_processed_frames_ = 0;
+
+    // The last frames are always kept, so that a take also has the frames
+    // captured just before it is started.
+    pre_roll_buffer_.assign(static_cast<size_t>(bytes_per_frame_) *
+                                sample_rate_ * pre_roll_time_ / 1000,
+                            0);
+    num_pre_roll_bytes_ = 0;
+
+    PaStream *stream(NULL);
+    if (replay_) {
+      OpenReplay();
+      input_latency_ = 0.0;
+      output_latency_ = 0.0;
+    } else {
+      error = Pa_OpenStream(&stream, &parameters,
+                            duplex ? &output_parameters : NULL, sample_rate_,
+                            frames_per_buffer_, paClipOff, StreamCallback,
+                            this);
+      if (error != paNoError) {
+        capture_buffer_.Release();
+        playback_buffer_.Release();
+        Terminate(error, 0030, NULL);
+        return false;
+      }
+
+      error = Pa_StartStream(stream);
+      if (error != paNoError) {
+        Pa_CloseStream(stream);
+        capture_buffer_.Release();
+        playback_buffer_.Release();
+        Terminate(error, 0040, NULL);
+        return false;
+      }
+
+      const PaStreamInfo *stream_info(Pa_GetStreamInfo(stream));
+      input_latency_ =
+          stream_info ? 1000.0 * stream_info->inputLatency : 0.0;
+      output_latency_ =
+          stream_info ? 1000.0 * stream_info->outputLatency : 0.0;
+    }
+    std::cout << "  Input latency: " << input_latency_ << " msec" << std::endl;
+    std::cout << "  Output latency: " << output_latency_ << " msec"
+              << std::endl;
+
+    std::cout << "*** Start Recording ***" << std::endl << std::endl;
+
+    // Int24ToInt() reads 4 bytes, so keep a margin after the last sample.
+    const int block_frames(std::max(1, sample_rate_ * frame_shift_ / 1000));
+    const size_t block_size(static_cast<size_t>(bytes_per_frame_) *
+                            block_frames);
+    std::vector<char> block(block_size + sizeof(int));
+
+    // The only calls to Java while capturing. The level is pushed once a
+    // block, and the events of a take are sent at most once a take.
+    const jclass j_class(env->GetObjectClass(obj));
+    const jmethodID j_level_published(
+        env->GetMethodID(j_class, "levelPublished", "()V"));
+    const jmethodID j_clipped(env->GetMethodID(j_class, "clipped", "()V"));
+    const jmethodID j_stop_requested(
+        env->GetMethodID(j_class, "stopRequested", "()V"));
+
+    output_open_ = duplex;
+    open_ = true;
+
+    int reported_overflows(0);
+    while (open_) {
+      const size_t size(
+          capture_buffer_.Read(&block[0], block_size, bytes_per_frame_));
+      if (size == 0) {
+        // Wait for the next block, or run the replayed device for it.
+        if (replay_) {
+          Replay();
+        } else {
+          Pa_Sleep(frame_shift_);
+        }
+        continue;
+      }
+
+      const int num_frames(static_cast<int>(size / bytes_per_frame_));
+      if (replay_) {
+        ReplayInput(&block[0], num_frames);
+      }
+      const int events(Capture(&block[0], num_frames));
+      if (j_level_published != NULL) {
+        env->CallVoidMethod(obj, j_level_published);
+      }
+      if ((events & kClipped) && j_clipped != NULL) {
+        env->CallVoidMethod(obj, j_clipped);
+      }
+      if ((events & kStopRequested) && j_stop_requested != NULL) {
+        env->CallVoidMethod(obj, j_stop_requested);
+      }
+      Probe(&block[0], num_frames);
+      num_processed_frames_ += num_frames;
+
+      const int num_overflows(num_overflows_);
+      if (num_overflows != reported_overflows) {
+        std::cerr << "Input overflow (" << num_overflows << ")" << std::endl;
+        reported_overflows = num_overflows;
+      }
+    }
+
+    if (replay_) {
+      CloseReplay();
+      capture_buffer_.Release();
+      ClosePlayback();
+    } else {
+      error = Pa_StopStream(stream);
+      if (error != paNoError) {
+        Pa_CloseStream(stream);
+        capture_buffer_.Release();
+        ClosePlayback();
+        Terminate(error, 0060, NULL);
+        return false;
+      }
+
+      error = Pa_CloseStream(stream);
+      capture_buffer_.Release();
+      ClosePlayback();
+      if (error != paNoError) {
+        Terminate(error, 0060, NULL);
+        return false;
+      }
+    }
+
+    std::cout << std::endl << "*** End Recording ***" << std::endl;
+
+    StopRecording();
+    Terminate(NULL);
+
+    return true;
+  }
+
+  void CloseStream() {
+    open_ = false;
+  }
+
+  bool IsOpen() const {
+    return open_;
+  }
+
+  bool Playback(JNIEnv *env, jobject obj, jstring file_name, jint event) {
+    std::cout << "Call Playback()" << std::endl;
+
+    // Stop the clip being played, if any, and wait for it to be discarded.
+    const int id(++playback_count_);
+    std::lock_guard<std::mutex> lock(playback_mutex_);
+    if (id != playback_count_) {
+      return true;
+    }
+
+    const bool result(PlaybackFile(env, file_name, id, event));
+    if (event == Beep) {
+      EndBeep(id);
+    }
+    return result;
+  }
+
+  // Play a clip already in memory, e.g. a beep preloaded by the clip cache
+  // of Audio. No file is read while playing.
+  bool PlaybackBuffer(JNIEnv *env, jobject obj, jobject clip, jint event) {
+    std::cout << "Call PlaybackBuffer()" << std::endl;
+
+    const int id(++playback_count_);
+    std::lock_guard<std::mutex> lock(playback_mutex_);
+    if (id != playback_count_) {
+      return true;
+    }
+
+    const bool result(PlaybackClip(env, clip, id, event));
+    if (event == Beep) {
+      EndBeep(id);
+    }
+    return result;
+  }
+
+  void StopPlayback() {
+    ++playback_count_;
+  }
+
+  // Play a click and find it in the input, e.g. through a loopback cable or
+  // the microphone in front of the speaker. Return the round trip latency
+  // [msec] counted in frames of the stream, or -1 if the click is not found.
+  double MeasureLatency() {
+    std::cout << "Call MeasureLatency()" << std::endl;
+
+    const int id(++playback_count_);
+    std::lock_guard<std::mutex> lock(playback_mutex_);
+    if (id != playback_count_ || !IsOutputOpen()) {
+      return -1.0;
+    }
+
+    // A single frame at half of the full scale on every channel.
+    std::vector<char> click(bytes_per_frame_, 0);
+    for (int i(0); i < num_channels_; ++i) {
+      if (float_format_) {
+        const float value(0.5f);
+        std::memcpy(&click[sample_size_ * i], &value, sizeof(value));
+      } else {
+        const int value(1 << (8 * sample_size_ - 2));
+        std::memcpy(&click[sample_size_ * i], &value, sample_size_);
+      }
+    }
+
+    const int num_overflows(num_overflows_);
+    probe_frame_ = -1;
+    probe_done_ = false;
+    probe_peak_ = 0;
+    probe_peak_frame_ = -1;
+    probe_sum_ = 0.0;
+    probe_index_ = playback_buffer_.GetWriteIndex();
+    probe_pending_.store(true, std::memory_order_release);
+    bool stopped(!QueueBlock(id, &click[0], click.size()));
+    FinishPlayback(id, stopped);
+
+    // Wait for the input of kProbeTime msec after the click is played.
+    for (int time(0); !stopped && !probe_done_ && time < 4 * kProbeTime;
+         time += frame_shift_) {
+      Pa_Sleep(frame_shift_);
+      stopped = (id != playback_count_ || !open_);
+    }
+    probe_pending_ = false;
+
+    double latency(-1.0);
+    if (probe_done_.load(std::memory_order_acquire) &&
+        num_overflows == num_overflows_) {
+      // The peak must stand out of the input during the probe.
+      const long long num_frames(static_cast<long long>(sample_rate_) *
+                                 kProbeTime / 1000);
+      if (probe_peak_ > kProbeRatio * probe_sum_ / num_frames) {
+        latency = 1000.0 * (probe_peak_frame_ - probe_frame_) / sample_rate_;
+      }
+    }
+    probe_frame_ = -1;
+
+    if (latency < 0.0) {
+      std::cerr << "Click is not found" << std::endl;
+    } else {
+      std::cout << "  Latency: " << latency << " msec" << std::endl;
+    }
+    return latency;
+  }
+
+  // Stop playback and release the queue of the stream which is closed.
+  void ClosePlayback() {
+    output_open_ = false;
+    ++playback_count_;
+    std::lock_guard<std::mutex> lock(playback_mutex_);
+    playback_buffer_.Release();
+  }
+
+  // Start recording delay msec after the end of the beep being played, or
+  // after delay msec from now if after_beep is false. The start is counted
+  // in frames of the input stream, so it does not depend on when this
+  // function or the capture thread is scheduled.
+  void Record(int delay, bool after_beep) {
+    std::lock_guard<std::mutex> lock(take_mutex_);
+    if (recording_file_.empty()) {
+      std::cerr << "Recording file is not set" << std::endl;
+      return;
+    }
+    start_delay_ = std::max(0, delay);
+    recording_offset_ = 0.0;
+    earliest_frame_ = -1;
+    if (after_beep) {
+      // The beep is played after Audio stops the previous clip, so its ID is
+      // not less than the current count.
+      start_frame_ = -1;
+      start_beep_id_ = playback_count_;
+    } else {
+      reference_frame_ = static_cast<double>(num_captured_frames_);
+      start_frame_ = static_cast<long long>(
+          std::ceil(reference_frame_ + GetDelayFrames()));
+    }
+    frame_ = 0;
+    take_energy_.Reset(
+        std::max(1, sample_rate_ * frame_shift_ / 1000),
+        std::max(1, static_cast<int>(std::floor(
+                        static_cast<double>(frame_length_) / frame_shift_ +
+                        0.5))),
+        num_channels_);
+    channel_energy_.resize(num_channels_);
+    for (int i(0); i < num_channels_; ++i) {
+      channel_energy_[i].Reset(take_energy_.GetFrameShift(),
+                               take_energy_.GetNumShiftsPerFrame(), 1);
+      clipping_[i] = false;
+    }
+    clip_amplitude_ = std::max(
+        1, static_cast<int>(clip_level_ *
+                            (float_format_
+                                 ? kFloatScale
+                                 : std::pow(2.0, sample_size_ * 8 - 1) - 1)));
+    num_clips_ = 0;
+    num_clipped_samples_ = 0;
+    first_clip_frame_ = -1;
+    clip_notified_ = false;
+    vad_level_ = silence_level_;
+    num_vad_windows_ = 0;
+    last_speech_window_ = -1;
+    stop_notified_ = false;
+    if (take_writer_.Open(recording_file_)) {
+      record_ = true;
+    }
+  }
+
+  void StopRecording() {
+    record_ = false;
+    std::lock_guard<std::mutex> lock(take_mutex_);
+    if (!take_writer_.Close()) {
+      std::cerr << "Cannot write " << recording_file_ << std::endl;
+    }
+  }
+
+  // Measure the take stopped by StopRecording() and plan its cut. The plan is
+  // set to the Java object and written by WriteTake(), which may be called
+  // from another thread while the next take is recorded.
+  bool Measure(JNIEnv *env, jobject obj, jboolean environment) {
+    std::cout << "Call Measure()" << std::endl;
+
+    const jclass j_class(env->GetObjectClass(obj));
+    jfieldID j_field;
+
+    // Nothing is written unless the take is accepted.
+    j_field = env->GetFieldID(j_class, "cutBegin", "J");
+    env->SetLongField(obj, j_field, 0);
+    j_field = env->GetFieldID(j_class, "cutEnd", "J");
+    env->SetLongField(obj, j_field, 0);
+
+    // The energy statistics have been collected while recording.
+    std::lock_guard<std::mutex> lock(take_mutex_);
+    const long long num_frames(frame_);
+    const FrameEnergy &energy(take_energy_);
+    const int frame_shift_pt(energy.GetFrameShift());
+    const int num_shifts_per_frame(energy.GetNumShiftsPerFrame());
+    const double max_rms(energy.GetMaxRms());
+    const int max(energy.GetMaxAmplitude());
+
+    std::cout << "  Recorded " << num_frames << " frames" << std::endl;
+
+    // Normalize data.
+    const double max_amplitude(std::pow(2.0, (sample_size_ * 8)) * 0.5);
+    const double max_normalized_amplitude(max_amplitude * normalization_ratio_);
+    const double scale((environment || max_rms == 0.0)
+                           ? 1.0
+                           : max_normalized_amplitude / max_rms);
+    j_field = env->GetFieldID(j_class, "scale", "D");
+    env->SetDoubleField(obj, j_field, scale);
+
+    // Set maximum amplitude ratio.
+    j_field = env->GetFieldID(j_class, "maxAmplitude", "D");
+    env->SetDoubleField(obj, j_field, 100.0 * max / max_amplitude);
+
+    // Set time from the end of the beep to the start of the take.
+    j_field = env->GetFieldID(j_class, "recordingOffset", "D");
+    env->SetDoubleField(obj, j_field, recording_offset_);
+
+    // Set clips counted while recording.
+    j_field = env->GetFieldID(j_class, "numClips", "I");
+    env->SetIntField(obj, j_field, num_clips_);
+    j_field = env->GetFieldID(j_class, "numClippedSamples", "J");
+    env->SetLongField(obj, j_field, num_clipped_samples_);
+    j_field = env->GetFieldID(j_class, "clipPosition", "D");
+    env->SetDoubleField(
+        obj, j_field,
+        first_clip_frame_ < 0
+            ? -1.0
+            : static_cast<double>(first_clip_frame_) / sample_rate_);
+
+    // Find silence intervals.
+    // [ 0 .. top_file .. end_file .. num_frames ]
+
+    const double silence_rms(silence_level_ * max_normalized_amplitude);
+
+    // Find top silence.
+    long long top_file;
+    long long top_speech;
+    double top_silence;
+    if (environment || silence_level_ == 0.0) {
+      top_file = sample_rate_ * min_top_silence_ / 1000;
+      top_speech = top_file;
+      top_silence = static_cast<double>(min_top_silence_) / 1000;
+    } else {
+      const int h(energy.FindFirst(scale, silence_rms));
+      const long long f(static_cast<long long>(h) * frame_shift_pt);
+      top_file = f - sample_rate_ * min_top_silence_ / 1000;
+      top_speech = f;
+      top_silence = static_cast<double>(f) / sample_rate_;
+      std::cout << "  top: " << top_file << " (accept if top > 0)" << std::endl;
+    }
+    j_field = env->GetFieldID(j_class, "topSilence", "D");
+    env->SetDoubleField(obj, j_field, top_silence);
+
+    // Find end silence.
+    long long end_speech;
+    long long end_file;
+    double end_silence;
+    if (environment || silence_level_ == 0.0) {
+      end_file = num_frames - sample_rate_ * min_end_silence_ / 1000;
+      end_speech = end_file;
+      end_silence = static_cast<double>(min_end_silence_) / 1000;
+    } else {
+      // The last speech has been found while capturing, unless the level has
+      // been changed since the take started, see DetectEnd().
+      const int h((silence_level_ == vad_level_ && vad_level_ < 1.0)
+                      ? last_speech_window_
+                      : energy.FindLast(scale, silence_rms));
+      const long long f(static_cast<long long>(h + num_shifts_per_frame) *
+                        frame_shift_pt);
+      end_file = f + sample_rate_ * min_end_silence_ / 1000;
+      end_speech = f;
+      end_silence = static_cast<double>(num_frames - f) / sample_rate_;
+      std::cout << "  end: " << end_file << " (accept if end < " << num_frames
+                << ")" << std::endl;
+    }
+    j_field = env->GetFieldID(j_class, "endSilence", "D");
+    env->SetDoubleField(obj, j_field, end_silence);
+
+    // Set the statistics of each channel. They are measured with the scale
+    // and the speech interval of the whole take, so that the channels can be
+    // compared with each other.
+    std::vector<double> statistics(4 * num_channels_, 0.0);
+    for (int i(0); i < static_cast<int>(channel_energy_.size()); ++i) {
+      const FrameEnergy &channel(channel_energy_[i]);
+      statistics[4 * i] = 100.0 * channel.GetMaxAmplitude() / max_amplitude;
+      statistics[4 * i + 1] = top_silence;
+      statistics[4 * i + 2] = end_silence;
+      if (!environment && silence_level_ != 0.0) {
+        const int top(channel.FindFirst(scale, silence_rms));
+        const int end(channel.FindLast(scale, silence_rms));
+        statistics[4 * i + 1] =
+            static_cast<double>(top) * frame_shift_pt / sample_rate_;
+        statistics[4 * i + 2] =
+            static_cast<double>(num_frames - static_cast<long long>(
+                                                 end + num_shifts_per_frame) *
+                                                 frame_shift_pt) /
+            sample_rate_;
+      }
+      if (top_speech < end_speech) {
+        const double channel_sqr(
+            channel.GetEnergy(static_cast<int>(top_speech / frame_shift_pt),
+                              static_cast<int>(end_speech / frame_shift_pt)));
+        statistics[4 * i + 3] =
+            10.0 * std::log10(channel_sqr / (end_speech - top_speech));
+      }
+    }
+    j_field = env->GetFieldID(j_class, "channelStatistics", "[D");
+    const jdoubleArray j_statistics(static_cast<jdoubleArray>(
+        env->GetObjectField(obj, j_field)));
+    if (j_statistics != NULL &&
+        env->GetArrayLength(j_statistics) >=
+            static_cast<jsize>(statistics.size())) {
+      env->SetDoubleArrayRegion(j_statistics, 0,
+                                static_cast<jsize>(statistics.size()),
+                                &statistics[0]);
+    }
+
+    // Failed to record.
+    if (top_file < 0 || end_file >= num_frames || top_file >= end_file ||
+        top_speech >= end_speech) {
+      return false;
+    }
+
+    // Set power.
+    const double sqr(
+        energy.GetEnergy(static_cast<int>(top_speech / frame_shift_pt),
+                         static_cast<int>(end_speech / frame_shift_pt)));
+    j_field = env->GetFieldID(j_class, "power", "D");
+    env->SetDoubleField(
+        obj, j_field,
+        10.0 * std::log10(sqr / (end_speech - top_speech) / num_channels_));
+
+    // Set the frames to be cut.
+    j_field = env->GetFieldID(j_class, "cutBegin", "J");
+    env->SetLongField(obj, j_field, top_file);
+    j_field = env->GetFieldID(j_class, "cutEnd", "J");
+    env->SetLongField(obj, j_field, end_file);
+
+    return true;
+  }
+
+  // Move the take recorded to the given file and write its frames [top, end)
+  // normalized by the given scale. Nothing is cut if top >= end. No state of
+  // the current take is used, so that the next take can be recorded meanwhile.
+  bool WriteTake(JNIEnv *env, jstring recording_file_name,
+                 jstring org_file_name, jstring cut_file_name,
+                 jstring wav_file_name, jlong top, jlong end,
+                 jdouble scale) const {
+    std::cout << "Call WriteTake()" << std::endl;
+
+    // The record data has already been written while recording.
+    const std::string recording_file(GetString(env, recording_file_name));
+    const std::string org_file(GetString(env, org_file_name));
+    if (org_file != recording_file && !RenameFile(recording_file, org_file)) {
+      std::cerr << "Cannot move " << recording_file << std::endl;
+      return false;
+    }
+
+    // Do not leave the WAV file and the envelopes of the previous take if
+    // this take fails.
+    const std::string cut_file(GetString(env, cut_file_name));
+    const std::string wav_file(GetString(env, wav_file_name));
+    if (!wav_file.empty()) {
+      std::remove(wav_file.c_str());
+    }
+    std::remove(PeakPyramid::GetFileName(org_file).c_str());
+    std::remove(PeakPyramid::GetFileName(cut_file).c_str());
+    if (top >= end) {
+      return false;
+    }
+
+    // Write normalized data.
+    std::cout << "  Writing data to " << cut_file << " " << end << std::endl;
+    if (!wav_file.empty()) {
+      std::cout << "  Writing data to " << wav_file << std::endl;
+    }
+    if (!WriteNormalizedData(org_file, cut_file, wav_file, top, end, scale)) {
+      return false;
+    }
+
+    std::cout << "  Done" << std::endl;
+
+    return true;
+  }
+
+ private:
+  // Play a file in the format of the stream.
+  bool PlaybackFile(JNIEnv *env, jstring file_name, int id, int event) {
+    if (!IsOutputOpen()) {
+      return false;
+    }
+
+    // Open file.
+    const std::string file(GetString(env, file_name));
+    FILE *fp(std::fopen(file.c_str(), "rb"));
+    if (fp == NULL) {
+      std::cerr << "Cannot open " << file << std::endl;
+      return false;
+    }
+
+    std::cout << "  Playback: " << file << std::endl;
+
+    if (event == Beep && std::fseek(fp, 0, SEEK_END) == 0) {
+      const long file_size(std::ftell(fp));
+      std::rewind(fp);
+      if (file_size >= 0) {
+        MarkBeepEnd(id, static_cast<size_t>(file_size) -
+                            file_size % bytes_per_frame_);
+      }
+    }
+
+    // Queue the file block by block. The output stream plays the queue.
+    const size_t block_size(static_cast<size_t>(bytes_per_frame_) *
+                            kBlockFrames);
+    std::vector<char> block(block_size);
+    bool stopped(false);
+    while (!stopped) {
+      size_t size(std::fread(&block[0], 1, block_size, fp));
+      size -= size % bytes_per_frame_;
+      if (size == 0) {
+        break;
+      }
+      stopped = !QueueBlock(id, &block[0], size);
+    }
+    std::fclose(fp);
+
+    FinishPlayback(id, stopped);
+
+    return true;
+  }
+
+  bool PlaybackClip(JNIEnv *env, jobject clip, int id, int event) {
+    const char *data(
+        static_cast<const char *>(env->GetDirectBufferAddress(clip)));
+    const jlong capacity(env->GetDirectBufferCapacity(clip));
+    if (data == NULL || capacity < 0) {
+      std::cerr << "Cannot access the clip" << std::endl;
+      return false;
+    }
+
+    if (!IsOutputOpen()) {
+      return false;
+    }
+
+    std::cout << "  Playback: " << capacity << " bytes" << std::endl;
+
+    const size_t block_size(static_cast<size_t>(bytes_per_frame_) *
+                            kBlockFrames);
+    const size_t data_size(static_cast<size_t>(capacity) -
+                           capacity % bytes_per_frame_);
+    if (event == Beep) {
+      MarkBeepEnd(id, data_size);
+    }
+    bool stopped(false);
+    for (size_t i(0); i < data_size && !stopped; i += block_size) {
+      stopped = !QueueBlock(id, data + i, std::min(block_size, data_size - i));
+    }
+
+    FinishPlayback(id, stopped);
+
+    return true;
+  }
+
+  // Mark the end of the beep of the given size which is about to be queued,
+  // so that the output callback publishes when the beep is played out.
+  void MarkBeepEnd(int id, size_t size) {
+    beep_end_index_ = playback_buffer_.GetWriteIndex() + size;
+    beep_id_.store(id, std::memory_order_release);
+  }
+
+  // Publish the end of a beep which has not been played out, e.g. stopped
+  // or failed, so that a take waiting for it starts at once.
+  void EndBeep(int id) {
+    if (beep_end_id_ != id) {
+      beep_end_time_ = -1.0;
+      beep_end_id_.store(id, std::memory_order_release);
+    }
+  }
+
+  bool IsOutputOpen() const {
+    if (!output_open_) {
+      std::cerr << "Output stream is not open" << std::endl;
+      return false;
+    }
+    return true;
+  }
+
+  // Queue a block to the output stream. Return false if the clip is stopped
+  // before the block is queued.
+  bool QueueBlock(int id, const char *block, size_t size) {
+    while (!playback_buffer_.Write(block, size)) {
+      if (id != playback_count_) {
+        return false;
+      }
+      Pa_Sleep(frame_shift_);
+    }
+    return id == playback_count_;
+  }
+
+  // Wait until the queue is played, or discard it if the clip is stopped.
+  void FinishPlayback(int id, bool stopped) {
+    while (!stopped && playback_buffer_.GetReadableSize() > 0) {
+      Pa_Sleep(frame_shift_);
+      stopped = (id != playback_count_);
+    }
+    if (stopped) {
+      playback_flush_index_ = playback_buffer_.GetWriteIndex();
+    }
+
+    std::cout << "  Done" << std::endl;
+  }
+
+  // Return the device of the given name, or the default device if the name
+  // is empty or not found.
+  PaDeviceIndex FindDevice(const std::string &name, bool input) const {
+    const PaDeviceIndex default_device(input ? Pa_GetDefaultInputDevice()
+                                             : Pa_GetDefaultOutputDevice());
+    if (name.empty()) {
+      return default_device;
+    }
+    for (PaDeviceIndex i(0); i < Pa_GetDeviceCount(); ++i) {
+      const PaDeviceInfo *info(Pa_GetDeviceInfo(i));
+      if ((input ? info->maxInputChannels : info->maxOutputChannels) <= 0) {
+        continue;
+      }
+      const std::string full_name(
+          std::string(Pa_GetHostApiInfo(info->hostApi)->name) + ": " +
+          info->name);
+      if (name == info->name || name == full_name) {
+        return i;
+      }
+    }
+    std::cerr << "Device is not found: " << name << std::endl;
+    return default_device;
+  }
+
+  PaTime GetLatency(PaDeviceIndex device, bool input) const {
+    const PaDeviceInfo *info(Pa_GetDeviceInfo(device));
+    if (suggested_latency_ == kHighLatency) {
+      return input ? info->defaultHighInputLatency
+                   : info->defaultHighOutputLatency;
+    } else if (suggested_latency_ <= kLowLatency) {
+      return input ? info->defaultLowInputLatency
+                   : info->defaultLowOutputLatency;
+    }
+    return suggested_latency_ / 1000.0;
+  }
+
+  // Capture the input and play the queue in one callback, so that both are
+  // driven by the clock of the same device.
+  static int StreamCallback(const void *input, void *output,
+                            unsigned long frame_count,
+                            const PaStreamCallbackTimeInfo *time_info,
+                            PaStreamCallbackFlags status_flags,
+                            void *user_data) {
+    CaptureCallback(input, output, frame_count, time_info, status_flags,
+                    user_data);
+    if (output != NULL) {
+      PlaybackCallback(input, output, frame_count, time_info, status_flags,
+                       user_data);
+    }
+    return paContinue;
+  }
+
+  static int PlaybackCallback(const void *input, void *output,
+                              unsigned long frame_count,
+                              const PaStreamCallbackTimeInfo *time_info,
+                              PaStreamCallbackFlags status_flags,
+                              void *user_data) {
+    CallPortAudio *self(static_cast<CallPortAudio *>(user_data));
+    RingBuffer &buffer(self->playback_buffer_);
+
+    // Drop a clip that has been stopped.
+    buffer.SkipTo(self->playback_flush_index_.load(std::memory_order_acquire));
+
+    // Play silence while the queue is empty.
+    const size_t size(static_cast<size_t>(frame_count) *
+                      self->bytes_per_frame_);
+    char *data(static_cast<char *>(output));
+    const size_t r(buffer.GetReadIndex());
+    const size_t n(buffer.Read(data, size, self->bytes_per_frame_));
+    std::memset(data + n, 0, size - n);
+
+    // Publish the frame at which the click of MeasureLatency() is played.
+    // The input of the frame has just been counted by CaptureCallback().
+    if (self->probe_pending_.load(std::memory_order_acquire)) {
+      const size_t offset(self->probe_index_.load() - r);
+      if (static_cast<std::ptrdiff_t>(offset) >= 0 && offset < n) {
+        self->probe_frame_.store(
+            self->num_captured_frames_.load(std::memory_order_relaxed) -
+                static_cast<long long>(frame_count) +
+                static_cast<long long>(offset / self->bytes_per_frame_),
+            std::memory_order_release);
+        self->probe_pending_.store(false, std::memory_order_relaxed);
+      }
+    }
+
+    // Publish the time at which the last frame of the beep reaches the DAC.
+    const int beep_id(self->beep_id_.load(std::memory_order_acquire));
+    if (beep_id != self->beep_end_id_.load(std::memory_order_relaxed)) {
+      const size_t offset(self->beep_end_index_.load() - r);
+      if (static_cast<std::ptrdiff_t>(offset) >= 0 && offset <= n) {
+        const double time(time_info->outputBufferDacTime > 0.0
+                              ? time_info->outputBufferDacTime
+                              : time_info->currentTime);
+        self->beep_end_time_.store(
+            time + static_cast<double>(offset / self->bytes_per_frame_) /
+                       self->sample_rate_,
+            std::memory_order_relaxed);
+        self->beep_end_id_.store(beep_id, std::memory_order_release);
+      }
+    }
+    return paContinue;
+  }
+
+  static int CaptureCallback(const void *input, void *output,
+                             unsigned long frame_count,
+                             const PaStreamCallbackTimeInfo *time_info,
+                             PaStreamCallbackFlags status_flags,
+                             void *user_data) {
+    CallPortAudio *self(static_cast<CallPortAudio *>(user_data));
+    if (input == NULL) {
+      return paContinue;
+    }
+    // Never block here; count the dropped buffer instead.
+    const size_t size(frame_count * self->bytes_per_frame_);
+    if (!self->capture_buffer_.Write(static_cast<const char *>(input), size)) {
+      self->num_overflows_.fetch_add(1, std::memory_order_relaxed);
+      return paContinue;
+    }
+    if (status_flags & paInputOverflow) {
+      self->num_overflows_.fetch_add(1, std::memory_order_relaxed);
+    }
+
+    // Keep the stream time of the 0th frame, from which the frame captured
+    // at a given time is found.
+    const double time(time_info->inputBufferAdcTime > 0.0
+                          ? time_info->inputBufferAdcTime
+                          : time_info->currentTime);
+    const long long n(self->num_captured_frames_.load(
+        std::memory_order_relaxed));
+    self->capture_origin_time_.store(
+        time - static_cast<double>(n) / self->sample_rate_,
+        std::memory_order_relaxed);
+    self->num_captured_frames_.store(n + frame_count,
+                                     std::memory_order_release);
+    return paContinue;
+  }
+
+  // Store a block of captured frames while recording and publish the sound
+  // level of the block. Return the events of the take raised by the block,
+  // see TakeEvent.
+  int Capture(const char *block, int num_frames) {
+    std::unique_lock<std::mutex> lock(take_mutex_, std::defer_lock);
+    // The take starts at the first-th frame of the block.
+    int first(num_frames);
+    if (record_) {
+      lock.lock();
+      if (take_writer_.IsOpen() && FindStartFrame()) {
+        first = static_cast<int>(std::max(
+            0LL, std::min(static_cast<long long>(num_frames),
+                          start_frame_ - num_processed_frames_)));
+      }
+      if (first < num_frames) {
+        if (frame_ == 0) {
+          // Prepend the frames captured just before the start.
+          first -= AddPreRoll(first);
+          recording_offset_ = 1000.0 *
+                              (num_processed_frames_ + first - frame_ -
+                               reference_frame_) /
+                              sample_rate_;
+          std::cout << "  Recording offset: " << recording_offset_ << " msec"
+                    << std::endl;
+        }
+        take_writer_.Append(block + bytes_per_frame_ * first,
+                            static_cast<size_t>(num_frames - first) *
+                                bytes_per_frame_);
+        frame_ += num_frames - first;
+      }
+    }
+
+    // Every channel is measured on its own, so that channels in opposite
+    // phase do not cancel each other.
+    int peaks[kMaxChannels] = {0};
+    double sqrs[kMaxChannels] = {0.0};
+    for (int t(0); t < num_frames; ++t) {
+      int frame_peaks[kMaxChannels];
+      double frame_sqrs[kMaxChannels];
+      GetChannelLevels(block + bytes_per_frame_ * t, frame_peaks, frame_sqrs);
+
+      // Collect the energy statistics of the take.
+      if (first <= t) {
+        AddToTake(frame_peaks, frame_sqrs, frame_ - num_frames + t);
+      }
+
+      for (int i(0); i < num_channels_; ++i) {
+        if (peaks[i] < frame_peaks[i]) {
+          peaks[i] = frame_peaks[i];
+        }
+        sqrs[i] += frame_sqrs[i];
+      }
+    }
+
+    long long levels[kLevelSlotSize] = {0};
+    double sqr(0.0);
+    for (int i(0); i < num_channels_; ++i) {
+      levels[0] = std::max(levels[0], static_cast<long long>(peaks[i]));
+      sqr += sqrs[i];
+      levels[2 + 2 * i] = peaks[i];
+      levels[3 + 2 * i] =
+          static_cast<long long>(std::sqrt(sqrs[i] / num_frames) + 0.5);
+    }
+    levels[1] = static_cast<long long>(
+        std::sqrt(sqr / num_frames / num_channels_) + 0.5);
+    PublishLevel(levels);
+
+    PushPreRoll(block, static_cast<size_t>(num_frames) * bytes_per_frame_);
+
+    int events(0);
+    if (first < num_frames) {
+      if (num_clips_ > max_clips_ && !clip_notified_) {
+        clip_notified_ = true;
+        events |= kClipped;
+      }
+      if (DetectEnd() && !stop_notified_) {
+        stop_notified_ = true;
+        events |= kStopRequested;
+      }
+    }
+    return events;
+  }
+
+  // Judge the windows of the take completed since the last call, and return
+  // true if the take should be stopped. A window is speech if its RMS
+  // normalized by the maximum RMS so far exceeds the silence level, which is
+  // the criterion of Measure(). The maximum only grows and a window is
+  // silent unless it exceeds the level times the maximum, so the last speech
+  // found here is the one found by Measure() once the take ends, as long as
+  // the level is less than 1.
+  bool DetectEnd() {
+    const FrameEnergy &energy(take_energy_);
+    const int num_windows(energy.GetNumWindows());
+    const double max_rms(energy.GetMaxRms());
+    if (vad_level_ > 0.0 && max_rms > 0.0) {
+      const double max_normalized_amplitude(
+          std::pow(2.0, (sample_size_ * 8)) * 0.5 * normalization_ratio_);
+      const double scale(max_normalized_amplitude / max_rms);
+      const double silence_rms(vad_level_ * max_normalized_amplitude);
+      for (int h(num_vad_windows_); h < num_windows; ++h) {
+        if (scale * energy.GetRms(h) > silence_rms) {
+          last_speech_window_ = h;
+        }
+      }
+    }
+    num_vad_windows_ = num_windows;
+
+    if (max_recording_time_ > 0 &&
+        frame_ >= static_cast<long long>(sample_rate_) * max_recording_time_ /
+                      1000) {
+      return true;
+    }
+    if (!auto_stop_ || last_speech_window_ < 0) {
+      return false;
+    }
+    // Measure() accepts the take if the end silence is longer than
+    // min_end_silence_, so one more shift is waited for.
+    const long long end_speech(
+        static_cast<long long>(last_speech_window_ +
+                               energy.GetNumShiftsPerFrame()) *
+        energy.GetFrameShift());
+    return frame_ > end_speech +
+                        static_cast<long long>(sample_rate_) *
+                            min_end_silence_ / 1000 +
+                        energy.GetFrameShift();
+  }
+
+  // Get the peak and the sum of squares over the channels of a frame.
+  void GetFrameLevel(const char *frame, int *peak, double *sqr) const {
+    int amplitudes[kMaxChannels];
+    double sqrs[kMaxChannels];
+    GetChannelLevels(frame, amplitudes, sqrs);
+    *peak = 0;
+    *sqr = 0.0;
+    for (int i(0); i < num_channels_; ++i) {
+      if (*peak < amplitudes[i]) {
+        *peak = amplitudes[i];
+      }
+      *sqr += sqrs[i];
+    }
+  }
+
+  // Get the absolute amplitude and the square of each channel of a frame.
+  // The squares are summed in double, which neither overflows for 32-bit
+  // samples nor loses the precision of float samples.
+  void GetChannelLevels(const char *frame, int *amplitudes,
+                        double *sqrs) const {
+    if (float_format_) {
+      // Float samples are measured in the range of 32-bit integers, so that
+      // the levels and the statistics of a take do not depend on the format.
+      const float *x(reinterpret_cast<const float *>(frame));
+      for (int i(0); i < num_channels_; ++i) {
+        const double value(static_cast<double>(x[i]) * kFloatScale);
+        amplitudes[i] = static_cast<int>(
+            std::min(1.0, std::fabs(static_cast<double>(x[i]))) *
+            kFloatScale);
+        sqrs[i] = value * value;
+      }
+      return;
+    }
+    for (int i(0); i < num_channels_; ++i) {
+      // Convert from x-byte to 4-byte integer.
+      const int value(ToInt(frame + sample_size_ * i));
+
+      // The amplitude of the most negative 32-bit sample is clipped.
+      amplitudes[i] = value == INT_MIN ? INT_MAX : std::abs(value);
+      sqrs[i] = static_cast<double>(value) * value;
+    }
+  }
+
+  // Add the frame-th frame of the take to the energy statistics of the take
+  // and of its channels, and count its clipped samples. A run of clipped
+  // samples of a channel is counted as one clip.
+  void AddToTake(const int *amplitudes, const double *sqrs, long long frame) {
+    int peak(0);
+    double sqr(0.0);
+    for (int i(0); i < num_channels_; ++i) {
+      channel_energy_[i].Add(sqrs[i], amplitudes[i]);
+      const bool clipped(amplitudes[i] >= clip_amplitude_);
+      if (clipped) {
+        ++num_clipped_samples_;
+        if (!clipping_[i] && num_clips_++ == 0) {
+          first_clip_frame_ = frame;
+        }
+      }
+      clipping_[i] = clipped;
+      if (peak < amplitudes[i]) {
+        peak = amplitudes[i];
+      }
+      sqr += sqrs[i];
+    }
+    take_energy_.Add(sqr, peak);
+  }
+
+  // Keep the last frames of the captured blocks.
+  void PushPreRoll(const char *block, size_t size) {
+    const size_t capacity(pre_roll_buffer_.size());
+    if (capacity == 0) {
+      return;
+    }
+    if (size > capacity) {
+      block += size - capacity;
+      num_pre_roll_bytes_ += size - capacity;
+      size = capacity;
+    }
+    const size_t offset(static_cast<size_t>(num_pre_roll_bytes_ % capacity));
+    const size_t first(std::min(size, capacity - offset));
+    std::memcpy(&pre_roll_buffer_[offset], block, first);
+    std::memcpy(&pre_roll_buffer_[0], block + first, size - first);
+    num_pre_roll_bytes_ += size;
+  }
+
+  // Add the pre-roll to a take which starts at the first-th frame of the
+  // current block. The frames of the block are used first, then the kept
+  // frames of the previous blocks, but none before earliest_frame_. Return
+  // the number of frames of the block to be added by the caller.
+  int AddPreRoll(int first) {
+    long long num_pre_roll_frames(
+        static_cast<long long>(pre_roll_buffer_.size() / bytes_per_frame_));
+    if (earliest_frame_ >= 0) {
+      num_pre_roll_frames = std::max(
+          0LL, std::min(num_pre_roll_frames, start_frame_ - earliest_frame_));
+    }
+    const int num_block_frames(static_cast<int>(
+        std::min(static_cast<long long>(first), num_pre_roll_frames)));
+    const size_t size(static_cast<size_t>(std::min(
+        static_cast<long long>(num_pre_roll_frames - num_block_frames) *
+            bytes_per_frame_,
+        num_pre_roll_bytes_)));
+    if (size == 0) {
+      return num_block_frames;
+    }
+
+    // Int24ToInt() reads 4 bytes, so keep a margin after the last sample.
+    std::vector<char> data(size + sizeof(int));
+    const size_t capacity(pre_roll_buffer_.size());
+    const size_t offset(
+        static_cast<size_t>((num_pre_roll_bytes_ - size) % capacity));
+    const size_t first_size(std::min(size, capacity - offset));
+    std::memcpy(&data[0], &pre_roll_buffer_[offset], first_size);
+    std::memcpy(&data[first_size], &pre_roll_buffer_[0], size - first_size);
+
+    take_writer_.Append(&data[0], size);
+    const int num_frames(static_cast<int>(size / bytes_per_frame_));
+    for (int t(0); t < num_frames; ++t) {
+      int amplitudes[kMaxChannels];
+      double sqrs[kMaxChannels];
+      GetChannelLevels(&data[bytes_per_frame_ * t], amplitudes, sqrs);
+      AddToTake(amplitudes, sqrs, frame_ + t);
+    }
+    frame_ += num_frames;
+    return num_block_frames;
+  }
+
+  // Open the file replayed as the input. The input is silence if the file is
+  // not given or cannot be read.
+  void OpenReplay() {
+    replay_fp_ = NULL;
+    replay_num_frames_ = 0;
+    replay_position_ = 0;
+    replay_idle_frame_ = 0;
+    replay_fast_ = false;
+    replay_clock_ = std::chrono::steady_clock::now();
+    if (!replay_file_.empty()) {
+      replay_fp_ = std::fopen(replay_file_.c_str(), "rb");
+      if (replay_fp_ == NULL) {
+        std::cerr << "Cannot open " << replay_file_ << std::endl;
+      } else if (std::fseek(replay_fp_, 0, SEEK_END) == 0) {
+        replay_num_frames_ = std::ftell(replay_fp_) / bytes_per_frame_;
+        std::rewind(replay_fp_);
+      }
+      if (replay_fp_ != NULL && replay_num_frames_ <= 0) {
+        std::fclose(replay_fp_);
+        replay_fp_ = NULL;
+      }
+    }
+    std::cout << "  Replay: " << (replay_fp_ ? replay_file_ : "silence")
+              << std::endl;
+  }
+
+  void CloseReplay() {
+    if (replay_fp_ != NULL) {
+      std::fclose(replay_fp_);
+      replay_fp_ = NULL;
+    }
+  }
+
+  // Run the replayed device for one buffer, as the callback of PortAudio
+  // does. The output is played into nothing, and the input is silence, part
+  // of which ReplayInput() replaces. The time of the stream is counted in
+  // frames, so the take is the same at any speed. The device runs at
+  // replay_speed_ times real time, or without waiting if it is not positive,
+  // while a take is replayed or a clip is played, and in real time otherwise.
+  void Replay() {
+    const int num_frames(frames_per_buffer_ > 0 ? frames_per_buffer_
+                                                : kBlockFrames);
+    const size_t size(static_cast<size_t>(bytes_per_frame_) * num_frames);
+    if (replay_input_.size() != size) {
+      replay_input_.assign(size, 0);
+      replay_output_.assign(size, 0);
+    }
+
+    const bool fast(replay_fast_ || playback_buffer_.GetReadableSize() > 0);
+    const double speed(fast ? replay_speed_ : 1.0);
+    const std::chrono::steady_clock::time_point now(
+        std::chrono::steady_clock::now());
+    if (speed <= 0.0 || replay_clock_ < now) {
+      replay_clock_ = now;
+    }
+    if (speed > 0.0) {
+      replay_clock_ +=
+          std::chrono::duration_cast<std::chrono::steady_clock::duration>(
+              std::chrono::duration<double>(num_frames / (sample_rate_ *
+                                                          speed)));
+      std::this_thread::sleep_until(replay_clock_);
+    }
+
+    PaStreamCallbackTimeInfo time_info;
+    time_info.currentTime =
+        static_cast<double>(num_captured_frames_) / sample_rate_;
+    time_info.inputBufferAdcTime = time_info.currentTime;
+    time_info.outputBufferDacTime = time_info.currentTime;
+    StreamCallback(&replay_input_[0], &replay_output_[0], num_frames,
+                   &time_info, 0, this);
+  }
+
+  // Replace a block captured by Replay() with the replayed file. Every take
+  // replays the file once from its beginning at the frame where the take
+  // starts. Before and after it, the input loops the top silence at the
+  // beginning of the file, which every take has to start with, so that the
+  // take, including its pre-roll, does not depend on when it is started.
+  void ReplayInput(char *block, int num_frames) {
+    if (replay_fp_ == NULL) {
+      // A silent take is never run without waiting, since it has no end.
+      replay_fast_ = record_ && replay_speed_ > 0.0;
+      return;
+    }
+
+    // The take starts at the first-th frame of the block.
+    long long start(-1);
+    if (record_) {
+      std::lock_guard<std::mutex> lock(take_mutex_);
+      if (take_writer_.IsOpen() && FindStartFrame()) {
+        start = start_frame_;
+      }
+    }
+    int first(num_frames);
+    if (start >= 0) {
+      first = static_cast<int>(std::max(
+          0LL, std::min(static_cast<long long>(num_frames),
+                        start - num_processed_frames_)));
+    }
+
+    bool exhausted(false);
+    int last(first);
+    if (first < num_frames) {
+      const long long frame(num_processed_frames_ + first - start);
+      const int n(static_cast<int>(std::max(
+          0LL, std::min<long long>(num_frames - first,
+                                   replay_num_frames_ - frame))));
+      ReadReplay(frame, block + bytes_per_frame_ * first, n);
+      exhausted = (frame + n >= replay_num_frames_);
+      last = first + n;
+    }
+    ReplayIdle(block, first);
+    ReplayIdle(block + bytes_per_frame_ * last, num_frames - last);
+    replay_fast_ = record_ && !exhausted;
+  }
+
+  // Loop the top silence of the replayed file into the given frames.
+  void ReplayIdle(char *data, int num_frames) {
+    const long long length(std::max(
+        1LL, std::min(replay_num_frames_,
+                      static_cast<long long>(sample_rate_) *
+                          min_top_silence_ / 1000)));
+    for (int t(0); t < num_frames;) {
+      const long long frame(replay_idle_frame_ % length);
+      const int n(static_cast<int>(
+          std::min<long long>(num_frames - t, length - frame)));
+      ReadReplay(frame, data + bytes_per_frame_ * t, n);
+      replay_idle_frame_ += n;
+      t += n;
+    }
+  }
+
+  // Read the given frames of the replayed file, or silence if they cannot
+  // be read.
+  void ReadReplay(long long frame, char *data, int num_frames) {
+    if (num_frames <= 0) {
+      return;
+    }
+    if (frame != replay_position_ &&
+        std::fseek(replay_fp_, static_cast<long>(frame * bytes_per_frame_),
+                   SEEK_SET) != 0) {
+      replay_position_ = -1;
+      std::memset(data, 0,
+                  static_cast<size_t>(num_frames) * bytes_per_frame_);
+      return;
+    }
+    const size_t n(std::fread(data, bytes_per_frame_, num_frames,
+                              replay_fp_));
+    std::memset(data + bytes_per_frame_ * n, 0,
+                (num_frames - n) * bytes_per_frame_);
+    replay_position_ = frame + static_cast<long long>(n);
+  }
+
+  // Search the input of kProbeTime msec after the click of MeasureLatency()
+  // for its peak.
+  void Probe(const char *block, int num_frames) {
+    const long long begin(probe_frame_.load(std::memory_order_acquire));
+    if (begin < 0 || probe_done_) {
+      return;
+    }
+    const long long end(begin +
+                        static_cast<long long>(sample_rate_) * kProbeTime /
+                            1000);
+    for (int t(0); t < num_frames; ++t) {
+      const long long frame(num_processed_frames_ + t);
+      if (frame < begin) {
+        continue;
+      }
+      if (frame >= end) {
+        probe_done_.store(true, std::memory_order_release);
+        return;
+      }
+      int frame_peak;
+      double frame_sqr;
+      GetFrameLevel(block + bytes_per_frame_ * t, &frame_peak, &frame_sqr);
+      probe_sum_ += frame_peak;
+      if (frame_peak > probe_peak_) {
+        probe_peak_ = frame_peak;
+        probe_peak_frame_ = frame;
+      }
+    }
+  }
+
+  // Return true if the frame at which the take starts is known. It is found
+  // once the beep has been played out.
+  bool FindStartFrame() {
+    if (start_frame_ >= 0) {
+      return true;
+    }
+    if (beep_end_id_.load(std::memory_order_acquire) < start_beep_id_) {
+      return false;
+    }
+    const double time(beep_end_time_);
+    if (time < 0.0) {
+      reference_frame_ = static_cast<double>(num_processed_frames_);
+    } else {
+      reference_frame_ = (time - capture_origin_time_) * sample_rate_;
+      // The take and its pre-roll start after the guard, so that the beep
+      // is neither recorded nor measured as the top silence.
+      earliest_frame_ = static_cast<long long>(std::ceil(
+          reference_frame_ +
+          static_cast<double>(sample_rate_) * beep_guard_time_ / 1000));
+    }
+    start_frame_ = std::max(
+        earliest_frame_,
+        static_cast<long long>(std::ceil(reference_frame_ + GetDelayFrames())));
+    return true;
+  }
+
+  double GetDelayFrames() const {
+    return static_cast<double>(sample_rate_) * start_delay_ / 1000;
+  }
+
+  // Publish the levels of one block, laid out as a slot of the level buffer,
+  // without any JNI call. Java reads the count first, so the slot must be
+  // written before the count. The capture loop then tells Java that a new
+  // slot is available.
+  void PublishLevel(const long long *levels) {
+    if (level_buffer_ == NULL) {
+      return;
+    }
+    volatile long long *slot(level_buffer_ + 1 +
+                             kLevelSlotSize *
+                                 (level_count_ % num_level_slots_));
+    for (int i(0); i < kLevelSlotSize; ++i) {
+      slot[i] = levels[i];
+    }
+    std::atomic_thread_fence(std::memory_order_release);
+    level_buffer_[0] = ++level_count_;
+  }
+
+  // Write the frames [top, end) of the recorded file with the given scale
+  // to the raw cut file and, if given, to the WAV file in a single pass. The
+  // envelope of the cut file is collected in the same pass and written to
+  // its sidecar, see PeakPyramid. The sidecar is only a cache, so the take
+  // is written even if the sidecar is not.
+  bool WriteNormalizedData(const std::string &org_file,
+                           const std::string &cut_file,
+                           const std::string &wav_file, long long top,
+                           long long end, double scale) const {
+    FILE *org_fp(std::fopen(org_file.c_str(), "rb"));
+    if (org_fp == NULL) {
+      std::cerr << "Cannot open " << org_file << std::endl;
+      return false;
+    }
+    FILE *cut_fp(std::fopen(cut_file.c_str(), "wb"));
+    if (cut_fp == NULL) {
+      std::cerr << "Cannot open " << cut_file << std::endl;
+      std::fclose(org_fp);
+      return false;
+    }
+    FILE *wav_fp(NULL);
+    if (!wav_file.empty()) {
+      wav_fp = std::fopen(wav_file.c_str(), "wb");
+      if (wav_fp == NULL) {
+        std::cerr << "Cannot open " << wav_file << std::endl;
+        std::fclose(org_fp);
+        std::fclose(cut_fp);
+        return false;
+      }
+    }
+
+    bool ok(wav_fp == NULL ||
+            WriteWaveHeader(wav_fp, (end - top) * bytes_per_frame_));
+
+    // The whole org file is read once to collect its envelope, and the part
+    // of each block in [top, end) is packed into a block and written at once.
+    const int frames_per_block(16384);
+    std::vector<char> buffer(static_cast<size_t>(bytes_per_frame_) *
+                                 frames_per_block +
+                             sizeof(int));
+    std::vector<char> block(static_cast<size_t>(bytes_per_frame_) *
+                                frames_per_block +
+                            sizeof(int));
+    PeakPyramid org_peaks;
+    PeakPyramid cut_peaks;
+    long long frame(0);
+    while (ok) {
+      const size_t num_frames(
+          std::fread(&buffer[0], bytes_per_frame_, frames_per_block, org_fp));
+      if (num_frames == 0) {
+        break;
+      }
+      AddPeaks(&buffer[0], num_frames, &org_peaks);
+
+      const long long first(std::max(frame, top));
+      const long long last(std::min<long long>(frame + num_frames, end));
+      if (first < last) {
+        const char *src(&buffer[0] + (first - frame) * bytes_per_frame_);
+        const size_t num_cut_frames(static_cast<size_t>(last - first));
+        const size_t num_samples(num_cut_frames * num_channels_);
+        if (float_format_) {
+          ScaleFloat(reinterpret_cast<const float *>(src),
+                     reinterpret_cast<float *>(&block[0]), num_samples,
+                     static_cast<float>(scale));
+        } else {
+          for (size_t i(0); i < num_samples; ++i) {
+            const int value(
+                static_cast<int>(scale * ToInt(src + sample_size_ * i)));
+            std::memcpy(&block[sample_size_ * i], &value, sample_size_);
+          }
+        }
+        AddPeaks(&block[0], num_cut_frames, &cut_peaks);
+        const size_t size(num_samples * sample_size_);
+        ok = std::fwrite(&block[0], 1, size, cut_fp) == size &&
+             (wav_fp == NULL ||
+              std::fwrite(&block[0], 1, size, wav_fp) == size);
+      }
+      frame += num_frames;
+    }
+    if (frame < end) {
+      ok = false;
+    }
+
+    std::fclose(org_fp);
+    ok = (std::fclose(cut_fp) == 0) && ok;
+    if (wav_fp != NULL) {
+      ok = (std::fclose(wav_fp) == 0) && ok;
+    }
+    if (ok) {
+      WritePeaks(&org_peaks, org_file);
+      WritePeaks(&cut_peaks, cut_file);
+    }
+    return ok;
+  }
+
+  // Write the sidecar of the given raw file. The file is drawn without it,
+  // so a failure is not an error.
+  static void WritePeaks(PeakPyramid *peaks, const std::string &raw_file) {
+    const std::string peaks_file(PeakPyramid::GetFileName(raw_file));
+    if (!peaks->Write(peaks_file)) {
+      std::cerr << "Cannot write " << peaks_file << std::endl;
+      std::remove(peaks_file.c_str());
+    }
+  }
+
+  // Add the minimum and maximum over all channels of each frame of the
+  // given block to the envelope. The block must have sizeof(int) bytes
+  // after the last frame for ToInt().
+  void AddPeaks(const char *block, size_t num_frames,
+                PeakPyramid *peaks) const {
+    const float *samples(reinterpret_cast<const float *>(block));
+    for (size_t t(0); t < num_frames; ++t) {
+      int min(SHRT_MAX);
+      int max(SHRT_MIN);
+      for (int c(0); c < num_channels_; ++c) {
+        const size_t i(num_channels_ * t + c);
+        const int peak(float_format_
+                           ? FloatToPeak(samples[i])
+                           : ToPeak(ToInt(block + sample_size_ * i)));
+        min = std::min(min, peak);
+        max = std::max(max, peak);
+      }
+      peaks->Add(min, max);
+    }
+  }
+
+  // Return the given float sample clamped to 16 bits, as PeakPyramid.java
+  // reads it. NaN is read as 0.
+  static int FloatToPeak(float sample) {
+    const float value(32768.0f * sample);
+    if (value >= SHRT_MAX) {
+      return SHRT_MAX;
+    } else if (value <= SHRT_MIN) {
+      return SHRT_MIN;
+    } else if (value != value) {
+      return 0;
+    }
+    return static_cast<int>(value);
+  }
+
+  // Return the upper 16 bits of the given integer sample as it is written,
+  // in sample_size_ bytes, as PeakPyramid.java reads them.
+  int ToPeak(int value) const {
+    const unsigned int bits(static_cast<unsigned int>(value)
+                            << (32 - 8 * sample_size_));
+    return static_cast<int>(bits) >> 16;
+  }
+
+  // Scale float samples. The loop has no branch, so that it is vectorized.
+  static void ScaleFloat(const float *src, float *dest, size_t size,
+                         float scale) {
+    for (size_t i(0); i < size; ++i) {
+      dest[i] = scale * src[i];
+    }
+  }
+
+  // Write the RIFF header of a WAV file whose data chunk has the given number
+  // of bytes. Float samples are written as IEEE float, whose format chunk
+  // has the extension size and is followed by the fact chunk. The file is
+  // RF64, whose sizes are held by the ds64 chunk, if the data chunk does not
+  // fit in the 32-bit sizes of RIFF.
+  bool WriteWaveHeader(FILE *fp, long long data_size) const {
+    const int format_size(float_format_ ? 18 : 16);
+    int header_size(12 + 8 + format_size + (float_format_ ? 12 : 0) + 8);
+    const bool rf64(data_size > 0xffffffffLL - (header_size - 8));
+    if (rf64) {
+      header_size += 8 + 28;
+    }
+    const unsigned long long num_bytes(data_size);
+    const unsigned long long num_frames(num_bytes / bytes_per_frame_);
+    const int bits_per_sample(8 * sample_size_);
+    unsigned char header[94];
+    unsigned char *p(header);
+    p = PutString(p, rf64 ? "RF64" : "RIFF");
+    p = PutInteger(p, rf64 ? 0xffffffffULL : header_size - 8 + num_bytes, 4);
+    p = PutString(p, "WAVE");
+    if (rf64) {
+      p = PutString(p, "ds64");
+      p = PutInteger(p, 28, 4);
+      p = PutInteger(p, header_size - 8 + num_bytes, 8);
+      p = PutInteger(p, num_bytes, 8);
+      p = PutInteger(p, num_frames, 8);
+      p = PutInteger(p, 0, 4);
+    }
+    p = PutString(p, "fmt ");
+    p = PutInteger(p, format_size, 4);
+    p = PutInteger(p, float_format_ ? 3 : 1, 2);
+    p = PutInteger(p, num_channels_, 2);
+    p = PutInteger(p, sample_rate_, 4);
+    p = PutInteger(p, sample_rate_ * bytes_per_frame_, 4);
+    p = PutInteger(p, bytes_per_frame_, 2);
+    p = PutInteger(p, bits_per_sample, 2);
+    if (float_format_) {
+      p = PutInteger(p, 0, 2);
+      p = PutString(p, "fact");
+      p = PutInteger(p, 4, 4);
+      p = PutInteger(p, rf64 ? 0xffffffffULL : num_frames, 4);
+    }
+    p = PutString(p, "data");
+    p = PutInteger(p, rf64 ? 0xffffffffULL : num_bytes, 4);
+    return std::fwrite(header, 1, header_size, fp) ==
+           static_cast<size_t>(header_size);
+  }
+
+  static unsigned char *PutString(unsigned char *p, const char *str) {
+    for (; *str != '\0'; ++str) {
+      *p++ = static_cast<unsigned char>(*str);
+    }
+    return p;
+  }
+
+  // Store the given value in little endian.
+  static unsigned char *PutInteger(unsigned char *p, unsigned long long value,
+                                   int size) {
+    for (int i(0); i < size; ++i) {
+      *p++ = static_cast<unsigned char>(value >> (8 * i));
+    }
+    return p;
+  }
+
+  static bool RenameFile(const std::string &src, const std::string &dest) {
+    std::remove(dest.c_str());
+    if (std::rename(src.c_str(), dest.c_str()) == 0) {
+      return true;
+    }
+
+    // Copy if the file cannot be renamed, e.g., across drives.
+    FILE *src_fp(std::fopen(src.c_str(), "rb"));
+    if (src_fp == NULL) {
+      return false;
+    }
+    FILE *dest_fp(std::fopen(dest.c_str(), "wb"));
+    if (dest_fp == NULL) {
+      std::fclose(src_fp);
+      return false;
+    }
+    std::vector<char> buffer(1 << 16);
+    size_t size;
+    bool copied(true);
+    while ((size = std::fread(&buffer[0], 1, buffer.size(), src_fp)) > 0) {
+      if (std::fwrite(&buffer[0], 1, size, dest_fp) != size) {
+        copied = false;
+        break;
+      }
+    }
+    std::fclose(src_fp);
+    copied = (std::fclose(dest_fp) == 0) && copied;
+    if (copied) {
+      std::remove(src.c_str());
+    }
+    return copied;
+  }
+
+  static std::string GetString(JNIEnv *env, jstring str) {
+    if (str == NULL) {
+      return std::string();
+    }
+    const char *chars(env->GetStringUTFChars(str, 0));
+    const std::string s(chars ? chars : "");
+    if (chars) {
+      env->ReleaseStringUTFChars(str, chars);
+    }
+    return s;
+  }
+
+  void Terminate(void *data) const {
+    if (data) {
+      std::free(data);
+      data = NULL;
+    }
+    Pa_Terminate();
+  }
+
+  void Terminate(PaError error, int error_code, void *data) const {
+    std::cerr << "Error in PortAudio" << std::endl;
+    std::cerr << "  Error number: " << error << std::endl;
+    std::cerr << "  Error message: " << Pa_GetErrorText(error) << std::endl;
+    std::cerr << "  Error code: " << error_code << std::endl;
+    Terminate(data);
+  }
+
+  PaSampleFormat GetSampleFormat(int sample_size, bool float_format) const {
+    if (float_format) {
+      return paFloat32;
+    }
+    switch (sample_size) {
+      case 1:
+        return paInt8;
+      case 2:
+        return paInt16;
+      case 3:
+        return paInt24;
+      case 4:
+        return paInt32;
+      default:
+        return 0;
+    }
+  }
+
+  int Int16ToInt(const void *x) const {
+    int y(*(static_cast<const int *>(x)) & 0x0000FFFF);
+    if (y >> 15 == 1) {
+      y = y | 0xFFFF0000;
+    }
+    long long xl(y);
+    return static_cast<int>(xl);
+  }
+
+  int Int24ToInt(const void *x) const {
+    int y(*(static_cast<const int *>(x)) & 0x00FFFFFF);
+    if (y >> 23 == 1) {
+      y = y | 0xFF000000;
+    }
+    long long xl(y);
+    return static_cast<int>(xl);
+  }
+
+  int Int32ToInt(const void *x) const {
+    return *(static_cast<const int *>(x));
+  }
+
+  int ToInt(const void *x) const {
+    if (sample_size_ == 2) {
+      return Int16ToInt(x);
+    } else if (sample_size_ == 3) {
+      return Int24ToInt(x);
+    }
+    return Int32ToInt(x);
+  }
+
+  // Full scale of float samples measured as 32-bit integers
+  static const double kFloatScale;
+
+  // Suggested latencies meaning the default latencies of the devices
+  static const double kLowLatency;
+  static const double kHighLatency;
+
+  // Frames of a block queued for playback
+  static const int kBlockFrames;
+
+  // Time [msec] searched for the click after it is played
+  static const int kProbeTime;
+
+  // Minimum ratio of the peak of the click to the mean peak of the frames
+  static const double kProbeRatio;
+
+  // Events of a take raised by Capture()
+  enum TakeEvent {
+    kClipped = 1,
+    kStopRequested = 2,
+  };
+
+  // Maximum number of channels, which bounds the per-channel arrays on the
+  // stack of the capture loop
+  static const int kMaxChannels = 8;
+
+  // Elements of a slot of the level buffer, see SetLevelBuffer()
+  static const int kLevelSlotSize = 2 * (1 + kMaxChannels);
+
+  std::atomic<long long> frame_;
+
+  int sample_rate_;  // [Hz]
+  int sample_rate_for_beep_;
+  int sample_rate_for_sample_;
+  int sample_size_;  // [byte]
+  int sample_size_for_beep_;
+  int sample_size_for_sample_;
+  int num_channels_;  // [ch]
+  int num_channels_for_beep_;
+  int num_channels_for_sample_;
+  bool float_format_;          // capture in 32-bit float
+  int frame_length_;           // [msec]
+  int frame_shift_;            // [msec]
+  int frames_per_buffer_;      // [frame], 0 if chosen by the host API
+  double suggested_latency_;   // [msec]
+  std::string input_device_;
+  std::string output_device_;
+  int capture_buffer_time_;    // [msec]
+  int playback_buffer_time_;   // [msec]
+  int max_recording_time_;     // [msec]
+  int pre_roll_time_;          // [msec]
+  int beep_guard_time_;        // [msec]
+  int min_top_silence_;        // [msec]
+  int min_end_silence_;        // [msec]
+  double silence_level_;
+  double normalization_ratio_;
+  double clip_level_;          // ratio to the full scale
+  int max_clips_;              // clips allowed in a take
+  bool auto_stop_;             // stop a take after its end silence
+
+  RingBuffer capture_buffer_;
+  int bytes_per_frame_;
+  std::atomic<int> num_overflows_;
+
+  volatile long long *level_buffer_;
+  int num_level_slots_;
+  long long level_count_;
+
+  std::atomic<long long> num_captured_frames_;
+  std::atomic<double> capture_origin_time_;  // stream time of the 0th frame
+  long long num_processed_frames_;
+  std::vector<char> pre_roll_buffer_;  // last frames before the block
+  long long num_pre_roll_bytes_;       // bytes pushed so far
+
+  std::mutex take_mutex_;
+  TakeWriter take_writer_;
+  FrameEnergy take_energy_;
+  std::vector<FrameEnergy> channel_energy_;
+  std::string recording_file_;
+  long long start_frame_;      // -1 until the start of the take is known
+  long long earliest_frame_;   // first frame after the beep, or -1
+  double reference_frame_;     // end of the beep or call of Record()
+  int start_delay_;            // [msec]
+  int start_beep_id_;
+  double recording_offset_;    // [msec]
+  int clip_amplitude_;         // lowest amplitude of a clipped sample
+  bool clipping_[kMaxChannels];  // last sample of each channel is clipped
+  int num_clips_;
+  long long num_clipped_samples_;
+  long long first_clip_frame_;  // -1 until the first clip
+  bool clip_notified_;
+  double vad_level_;           // silence level when the take started
+  int num_vad_windows_;        // windows judged so far
+  int last_speech_window_;     // -1 until speech is found
+  bool stop_notified_;
+
+  double input_latency_;       // [msec]
+  double output_latency_;      // [msec]
+  std::atomic<bool> output_open_;
+  RingBuffer playback_buffer_;
+  std::atomic<size_t> playback_flush_index_;
+  std::atomic<int> playback_count_;
+  std::mutex playback_mutex_;
+  std::atomic<int> beep_id_;
+  std::atomic<size_t> beep_end_index_;
+  std::atomic<int> beep_end_id_;
+  std::atomic<double> beep_end_time_;  // -1 if the beep was not played out
+  std::atomic<size_t> probe_index_;    // click in the playback queue
+  std::atomic<bool> probe_pending_;
+  std::atomic<long long> probe_frame_;  // frame at which the click is played
+  std::atomic<bool> probe_done_;
+  int probe_peak_;
+  long long probe_peak_frame_;
+  double probe_sum_;
+
+  bool replay_;                  // replay a file instead of the devices
+  std::string replay_file_;      // empty for silence
+  double replay_speed_;          // multiple of real time, see Replay()
+  FILE *replay_fp_;
+  long long replay_num_frames_;
+  long long replay_position_;    // next frame read from the file
+  long long replay_idle_frame_;  // frames looped by ReplayIdle()
+  bool replay_fast_;             // a take is being replayed
+  std::chrono::steady_clock::time_point replay_clock_;  // end of the buffer
+  std::vector<char> replay_input_;
+  std::vector<char> replay_output_;
+
+  std::atomic<bool> open_;
+  std::atomic<bool> record_;
+};
+
+const double CallPortAudio::kFloatScale(2147483647.0);
+const double CallPortAudio::kLowLatency(0.0);
+const double CallPortAudio::kHighLatency(-1.0);
+const int CallPortAudio::kBlockFrames(1024);
+const int CallPortAudio::kProbeTime(1000);
+const double CallPortAudio::kProbeRatio(20.0);
+
+CallPortAudio *port_audio = NULL;
+
+JNIEXPORT void JNICALL Java_jp_ac_nitech_sp_voist_CallPortAudio_setSampleRate(
+    JNIEnv *, jobject, jint rate) {
+  if (port_audio) {
+    port_audio->SetSampleRate(rate);
+  }
+}
+
+JNIEXPORT void JNICALL Java_jp_ac_nitech_sp_voist_CallPortAudio_setSampleSize(
+    JNIEnv *, jobject, jint size) {
+  if (port_audio) {
+    port_audio->SetSampleSize(size);
+  }
+}
+
+JNIEXPORT void JNICALL Java_jp_ac_nitech_sp_voist_CallPortAudio_setNumChannels(
+    JNIEnv *, jobject, jint num) {
+  if (port_audio) {
+    port_audio->SetNumChannels(num);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_setSampleRateForBeep(JNIEnv *, jobject,
+                                                              jint rate) {
+  if (port_audio) {
+    port_audio->SetSampleRateForBeep(rate);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_setSampleSizeForBeep(JNIEnv *, jobject,
+                                                              jint size) {
+  if (port_audio) {
+    port_audio->SetSampleSizeForBeep(size);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_setNumChannelsForBeep(JNIEnv *,
+                                                               jobject,
+                                                               jint num) {
+  if (port_audio) {
+    port_audio->SetNumChannelsForBeep(num);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_setSampleRateForSample(JNIEnv *,
+                                                                jobject,
+                                                                jint rate) {
+  if (port_audio) {
+    port_audio->SetSampleRateForSample(rate);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_setSampleSizeForSample(JNIEnv *,
+                                                                jobject,
+                                                                jint size) {
+  if (port_audio) {
+    port_audio->SetSampleSizeForSample(size);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_setNumChannelsForSample(JNIEnv *,
+                                                                 jobject,
+                                                                 jint num) {
+  if (port_audio) {
+    port_audio->SetNumChannelsForSample(num);
+  }
+}
+
+JNIEXPORT void JNICALL Java_jp_ac_nitech_sp_voist_CallPortAudio_setFloatFormat(
+    JNIEnv *, jobject, jboolean float_format) {
+  if (port_audio) {
+    port_audio->SetFloatFormat(float_format);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_setInputDevice(JNIEnv *env, jobject,
+                                                        jstring name) {
+  if (port_audio) {
+    port_audio->SetInputDevice(env, name);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_setOutputDevice(JNIEnv *env, jobject,
+                                                         jstring name) {
+  if (port_audio) {
+    port_audio->SetOutputDevice(env, name);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_setFramesPerBuffer(JNIEnv *, jobject,
+                                                            jint num) {
+  if (port_audio) {
+    port_audio->SetFramesPerBuffer(num);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_setSuggestedLatency(JNIEnv *, jobject,
+                                                             jdouble time) {
+  if (port_audio) {
+    port_audio->SetSuggestedLatency(time);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_setRecordingFile(JNIEnv *env, jobject,
+                                                          jstring file_name) {
+  if (port_audio) {
+    port_audio->SetRecordingFile(env, file_name);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_setMaxRecordingTime(JNIEnv *, jobject,
+                                                             jint time) {
+  if (port_audio) {
+    port_audio->SetMaxRecordingTime(time);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_setPreRollTime(JNIEnv *, jobject,
+                                                        jint time) {
+  if (port_audio) {
+    port_audio->SetPreRollTime(time);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_setBeepGuardTime(JNIEnv *, jobject,
+                                                          jint time) {
+  if (port_audio) {
+    port_audio->SetBeepGuardTime(time);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_setMinTopSilence(JNIEnv *, jobject,
+                                                          jint time) {
+  if (port_audio) {
+    port_audio->SetMinTopSilence(time);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_setMinEndSilence(JNIEnv *, jobject,
+                                                          jint time) {
+  if (port_audio) {
+    port_audio->SetMinEndSilence(time);
+  }
+}
+
+JNIEXPORT void JNICALL Java_jp_ac_nitech_sp_voist_CallPortAudio_setSilenceLevel(
+    JNIEnv *, jobject, jdouble level) {
+  if (port_audio) {
+    port_audio->SetSilenceLevel(level);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_setNormalizationRatio(JNIEnv *,
+                                                               jobject,
+                                                               jdouble ratio) {
+  if (port_audio) {
+    port_audio->SetNormalizationRatio(ratio);
+  }
+}
+
+JNIEXPORT void JNICALL Java_jp_ac_nitech_sp_voist_CallPortAudio_setClipLevel(
+    JNIEnv *, jobject, jdouble level) {
+  if (port_audio) {
+    port_audio->SetClipLevel(level);
+  }
+}
+
+JNIEXPORT void JNICALL Java_jp_ac_nitech_sp_voist_CallPortAudio_setMaxClips(
+    JNIEnv *, jobject, jint num) {
+  if (port_audio) {
+    port_audio->SetMaxClips(num);
+  }
+}
+
+JNIEXPORT void JNICALL Java_jp_ac_nitech_sp_voist_CallPortAudio_setAutoStop(
+    JNIEnv *, jobject, jboolean auto_stop) {
+  if (port_audio) {
+    port_audio->SetAutoStop(auto_stop);
+  }
+}
+
+JNIEXPORT void JNICALL Java_jp_ac_nitech_sp_voist_CallPortAudio_setReplay(
+    JNIEnv *env, jobject, jstring file_name, jdouble speed) {
+  if (port_audio) {
+    port_audio->SetReplay(env, file_name, speed);
+  }
+}
+
+JNIEXPORT jint JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getSampleRate(JNIEnv *, jobject) {
+  return port_audio ? port_audio->GetSampleRate() : 0;
+}
+
+JNIEXPORT jint JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getSampleSize(JNIEnv *, jobject) {
+  return port_audio ? port_audio->GetSampleSize() : 0;
+}
+
+JNIEXPORT jint JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getNumChannels(JNIEnv *, jobject) {
+  return port_audio ? port_audio->GetNumChannels() : 0;
+}
+
+JNIEXPORT jint JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getSampleRateForBeep(JNIEnv *,
+                                                              jobject) {
+  return port_audio ? port_audio->GetSampleRateForBeep() : 0;
+}
+
+JNIEXPORT jint JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getSampleSizeForBeep(JNIEnv *,
+                                                              jobject) {
+  return port_audio ? port_audio->GetSampleSizeForBeep() : 0;
+}
+
+JNIEXPORT jint JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getNumChannelsForBeep(JNIEnv *,
+                                                               jobject) {
+  return port_audio ? port_audio->GetNumChannelsForBeep() : 0;
+}
+
+JNIEXPORT jint JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getSampleRateForSample(JNIEnv *,
+                                                                jobject) {
+  return port_audio ? port_audio->GetSampleRateForSample() : 0;
+}
+
+JNIEXPORT jint JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getSampleSizeForSample(JNIEnv *,
+                                                                jobject) {
+  return port_audio ? port_audio->GetSampleSizeForSample() : 0;
+}
+
+JNIEXPORT jint JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getNumChannelsForSample(JNIEnv *,
+                                                                 jobject) {
+  return port_audio ? port_audio->GetNumChannelsForSample() : 0;
+}
+
+JNIEXPORT jboolean JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_isFloatFormat(JNIEnv *, jobject) {
+  return port_audio ? port_audio->IsFloatFormat() : false;
+}
+
+JNIEXPORT jint JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getMaxRecordingTime(JNIEnv *,
+                                                             jobject) {
+  return port_audio ? port_audio->GetMaxRecordingTime() : 0;
+}
+
+JNIEXPORT jint JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getPreRollTime(JNIEnv *, jobject) {
+  return port_audio ? port_audio->GetPreRollTime() : 0;
+}
+
+JNIEXPORT jint JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getBeepGuardTime(JNIEnv *, jobject) {
+  return port_audio ? port_audio->GetBeepGuardTime() : 0;
+}
+
+JNIEXPORT jint JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getMinTopSilence(JNIEnv *, jobject) {
+  return port_audio ? port_audio->GetMinTopSilence() : 0;
+}
+
+JNIEXPORT jint JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getMinEndSilence(JNIEnv *, jobject) {
+  return port_audio ? port_audio->GetMinEndSilence() : 0;
+}
+
+JNIEXPORT jdouble JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getSilenceLevel(JNIEnv *, jobject) {
+  return port_audio ? port_audio->GetSilenceLevel() : 0.0;
+}
+
+JNIEXPORT jdouble JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getNormalizationRatio(JNIEnv *,
+                                                               jobject) {
+  return port_audio ? port_audio->GetNormalizationRatio() : 0.0;
+}
+
+JNIEXPORT jdouble JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getClipLevel(JNIEnv *, jobject) {
+  return port_audio ? port_audio->GetClipLevel() : 0.0;
+}
+
+JNIEXPORT jint JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getMaxClips(JNIEnv *, jobject) {
+  return port_audio ? port_audio->GetMaxClips() : 0;
+}
+
+JNIEXPORT jboolean JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_isAutoStop(JNIEnv *, jobject) {
+  return port_audio ? port_audio->IsAutoStop() : false;
+}
+
+JNIEXPORT jstring JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getInputDevice(JNIEnv *env, jobject) {
+  return port_audio ? port_audio->GetInputDevice(env) : NULL;
+}
+
+JNIEXPORT jstring JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getOutputDevice(JNIEnv *env,
+                                                         jobject) {
+  return port_audio ? port_audio->GetOutputDevice(env) : NULL;
+}
+
+JNIEXPORT jint JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getFramesPerBuffer(JNIEnv *,
+                                                            jobject) {
+  return port_audio ? port_audio->GetFramesPerBuffer() : 0;
+}
+
+JNIEXPORT jdouble JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getSuggestedLatency(JNIEnv *,
+                                                             jobject) {
+  return port_audio ? port_audio->GetSuggestedLatency() : 0.0;
+}
+
+JNIEXPORT jdouble JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getInputLatency(JNIEnv *, jobject) {
+  return port_audio ? port_audio->GetInputLatency() : 0.0;
+}
+
+JNIEXPORT jdouble JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getOutputLatency(JNIEnv *, jobject) {
+  return port_audio ? port_audio->GetOutputLatency() : 0.0;
+}
+
+JNIEXPORT jobjectArray JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_getDevices(JNIEnv *env, jobject) {
+  return port_audio ? port_audio->GetDevices(env) : NULL;
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_createInstance(JNIEnv *env,
+                                                        jobject obj) {
+  port_audio = new CallPortAudio();
+
+  const jclass j_class(env->GetObjectClass(obj));
+  const jfieldID j_field(
+      env->GetFieldID(j_class, "levelBuffer", "Ljava/nio/ByteBuffer;"));
+  if (j_field != NULL) {
+    port_audio->SetLevelBuffer(env, env->GetObjectField(obj, j_field));
+  }
+}
+
+JNIEXPORT jboolean JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_openStream(JNIEnv *env, jobject obj) {
+  return port_audio ? port_audio->OpenStream(env, obj) : false;
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_closeStream(JNIEnv *, jobject) {
+  if (port_audio) {
+    port_audio->CloseStream();
+  }
+}
+
+JNIEXPORT jboolean JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_isOpen(JNIEnv *, jobject) {
+  return port_audio ? port_audio->IsOpen() : false;
+}
+
+JNIEXPORT jboolean JNICALL Java_jp_ac_nitech_sp_voist_CallPortAudio_playback(
+    JNIEnv *env, jobject obj, jstring file_name, jint event) {
+  return port_audio ? port_audio->Playback(env, obj, file_name, event) : false;
+}
+
+JNIEXPORT jboolean JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_playbackBuffer(JNIEnv *env,
+                                                        jobject obj,
+                                                        jobject clip,
+                                                        jint event) {
+  return port_audio ? port_audio->PlaybackBuffer(env, obj, clip, event)
+                    : false;
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_stopPlayback(JNIEnv *, jobject) {
+  if (port_audio) {
+    port_audio->StopPlayback();
+  }
+}
+
+JNIEXPORT jdouble JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_measureLatency(JNIEnv *, jobject) {
+  return port_audio ? port_audio->MeasureLatency() : -1.0;
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_record(JNIEnv *, jobject) {
+  if (port_audio) {
+    port_audio->Record(0, false);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_scheduleRecording(
+    JNIEnv *, jobject, jint delay, jboolean after_beep) {
+  if (port_audio) {
+    port_audio->Record(delay, after_beep == JNI_TRUE);
+  }
+}
+
+JNIEXPORT void JNICALL
+Java_jp_ac_nitech_sp_voist_CallPortAudio_stopRecording(JNIEnv *, jobject) {
+  if (port_audio) {
+    port_audio->StopRecording();
+  }
+}
+
+JNIEXPORT jboolean JNICALL Java_jp_ac_nitech_sp_voist_CallPortAudio_measure(
+    JNIEnv *env, jobject obj, jboolean environment) {
+  return port_audio ? port_audio->Measure(env, obj, environment) : false;
+}
+
+JNIEXPORT jboolean JNICALL Java_jp_ac_nitech_sp_voist_CallPortAudio_writeTake(
+    JNIEnv *env, jobject obj, jstring recording_file_name,
+    jstring org_file_name, jstring cut_file_name, jstring wav_file_name,
+    jlong cut_begin, jlong cut_end, jdouble scale) {
+  return port_audio ? port_audio->WriteTake(env, recording_file_name,
+                                            org_file_name, cut_file_name,
+                                            wav_file_name, cut_begin, cut_end,
+                                            scale)
+                    : false;
+}
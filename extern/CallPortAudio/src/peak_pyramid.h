@@ -0,0 +1,134 @@
+// ------------------------------------------------------------------------ //
+// Copyright 2016 Nagoya Institute of Technology                            //
+//                                                                          //
+// Licensed under the Apache License, Version 2.0 (the "License");          //
+// you may not use this file except in compliance with the License.         //
+// You may obtain a copy of the License at                                  //
+//                                                                          //
+//     http://www.apache.org/licenses/LICENSE-2.0                           //
+//                                                                          //
+// Unless required by applicable law or agreed to in writing, software      //
+// distributed under the License is distributed on an "AS IS" BASIS,        //
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
+// See the License for the specific language governing permissions and      //
+// limitations under the License.                                           //
+// ------------------------------------------------------------------------ //
+
+#ifndef CALLPORTAUDIO_SRC_PEAK_PYRAMID_H_
+#define CALLPORTAUDIO_SRC_PEAK_PYRAMID_H_
+
+#include <algorithm>
+#include <climits>
+#include <cstdio>
+#include <string>
+#include <vector>
+
+// Minimum and maximum envelope of a raw file collected frame by frame while
+// the file is written, so that the file is not read again to draw it. The
+// envelope is written to the sidecar read by PeakPyramid.java, whose n-th
+// level holds the minimum and maximum over all channels of every
+// kBaseBucket * kFactor^n frames in 16 bits.
+class PeakPyramid {
+ public:
+  PeakPyramid() : num_frames_(0), min_(SHRT_MAX), max_(SHRT_MIN) {
+  }
+
+  ~PeakPyramid() {
+  }
+
+  // Return the sidecar file of the given raw file, as getFile() of
+  // PeakPyramid.java does.
+  static std::string GetFileName(const std::string &raw_file) {
+    return raw_file + ".peaks";
+  }
+
+  // Add one frame given its minimum and maximum samples over all channels
+  // in 16 bits.
+  void Add(int min, int max) {
+    min_ = std::min(min_, min);
+    max_ = std::max(max_, max);
+    if (++num_frames_ % kBaseBucket == 0) {
+      Flush();
+    }
+  }
+
+  // Write the envelope of the frames added so far to the given file. The
+  // last bucket may be partial, and an empty file has one empty bucket.
+  bool Write(const std::string &file_name) {
+    if (num_frames_ % kBaseBucket != 0 || num_frames_ == 0) {
+      Flush();
+    }
+
+    // Each level has kFactor times fewer buckets than the finer one, down to
+    // one.
+    std::vector<std::vector<short> > levels(1, base_);
+    while (levels.back().size() > 2) {
+      const std::vector<short> &fine(levels.back());
+      const size_t num_fine(fine.size() / 2);
+      std::vector<short> coarse;
+      for (size_t b(0); b < num_fine; b += kFactor) {
+        int min(SHRT_MAX);
+        int max(SHRT_MIN);
+        for (size_t c(b); c < std::min(b + kFactor, num_fine); ++c) {
+          min = std::min(min, static_cast<int>(fine[2 * c]));
+          max = std::max(max, static_cast<int>(fine[2 * c + 1]));
+        }
+        coarse.push_back(static_cast<short>(min));
+        coarse.push_back(static_cast<short>(max));
+      }
+      levels.push_back(coarse);
+    }
+
+    std::vector<unsigned char> data;
+    Put(&data, kMagic, 4);
+    Put(&data, kBaseBucket, 4);
+    Put(&data, kFactor, 4);
+    Put(&data, num_frames_, 8);
+    Put(&data, levels.size(), 4);
+    for (size_t i(0); i < levels.size(); ++i) {
+      Put(&data, levels[i].size() / 2, 4);
+      for (size_t j(0); j < levels[i].size(); ++j) {
+        Put(&data, static_cast<unsigned short>(levels[i][j]), 2);
+      }
+    }
+
+    FILE *fp(std::fopen(file_name.c_str(), "wb"));
+    if (fp == NULL) {
+      return false;
+    }
+    const bool ok(std::fwrite(&data[0], 1, data.size(), fp) == data.size());
+    return (std::fclose(fp) == 0) && ok;
+  }
+
+ private:
+  // Frames of a bucket of the finest level
+  static const int kBaseBucket = 64;
+
+  // Ratio of the bucket sizes of adjacent levels
+  static const int kFactor = 4;
+
+  // "VPK1" in little endian
+  static const int kMagic = 0x314B5056;
+
+  void Flush() {
+    base_.push_back(static_cast<short>(min_));
+    base_.push_back(static_cast<short>(max_));
+    min_ = SHRT_MAX;
+    max_ = SHRT_MIN;
+  }
+
+  // Append the given value in little endian.
+  static void Put(std::vector<unsigned char> *data, unsigned long long value,
+                  int size) {
+    for (int i(0); i < size; ++i) {
+      data->push_back(static_cast<unsigned char>(value >> (8 * i)));
+    }
+  }
+
+  long long num_frames_;
+  int min_;
+  int max_;
+  std::vector<short> base_;
+};
+
+#endif  // CALLPORTAUDIO_SRC_PEAK_PYRAMID_H_
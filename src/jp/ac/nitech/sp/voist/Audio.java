@@ -1,244 +1,916 @@
-// ------------------------------------------------------------------------ //
-// Copyright 2016 Nagoya Institute of Technology                            //
-//                                                                          //
-// Licensed under the Apache License, Version 2.0 (the "License");          //
-// you may not use this file except in compliance with the License.         //
-// You may obtain a copy of the License at                                  //
-//                                                                          //
-//     http://www.apache.org/licenses/LICENSE-2.0                           //
-//                                                                          //
-// Unless required by applicable law or agreed to in writing, software      //
-// distributed under the License is distributed on an "AS IS" BASIS,        //
-// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
-// See the License for the specific language governing permissions and      //
-// limitations under the License.                                           //
-// ------------------------------------------------------------------------ //
-
-package jp.ac.nitech.sp.voist;
-
-import java.io.File;
-import java.util.concurrent.ExecutionException;
-import javax.swing.SwingWorker;
-import jp.ac.nitech.sp.voist.RecordInfo.RecordStatus;
-
-public class Audio extends CallPortAudio {
-  public static enum PlaybackEvent {
-    OFF,
-    BEEP,
-    SAMPLE,
-    VOICE_ORG,
-    VOICE_CUT,
-    VOICE_TMP,
-    VOICE_WAV,
-  }
-
-  public static enum PlaybackResult {
-    PLAY,
-    STOP,
-    ERROR
-  }
-
-  public static enum RecordingEvent {
-    OFF,
-    ON,
-  }
-
-  // SwingWorker for sound playback
-  private SwingWorker<String, String> playback;
-
-  // Playback event
-  private PlaybackEvent playbackEvent;
-
-  // Recording event
-  private RecordingEvent recordingEvent;
-
-  // Margin time [msec],
-  // which prevents to record the noise occurred by mouse click or key touch
-  private int marginTime;
-
-  public Audio() {
-    super.createInstance();
-    playback = null;
-    playbackEvent = PlaybackEvent.OFF;
-    recordingEvent = RecordingEvent.OFF;
-    marginTime = 0;
-  }
-
-  public boolean setMarginTime(int time) {
-    if (time < 0 || getMaxRecordingTime() < time) {
-      return false;
-    }
-    marginTime = time;
-    return true;
-  }
-
-  public int getMarginTime() {
-    return marginTime;
-  }
-
-  public PlaybackEvent getPlaybackEvent() {
-    return playbackEvent;
-  }
-
-  public RecordingEvent getRecordingEvent() {
-    return recordingEvent;
-  }
-
-  public boolean open() {
-    if (!isOpen()) {
-      new Stream().execute();
-      return true;
-    }
-    return false;
-  }
-
-  public boolean close() {
-    if (isOpen()) {
-      new Stream().execute();
-      return true;
-    }
-    return false;
-  }
-
-  public PlaybackResult playback(String fileName, PlaybackEvent newEvent) {
-    super.stopPlayback();
-
-    if (fileName == null || newEvent == null) {
-      return PlaybackResult.STOP;
-    }
-    if (newEvent == PlaybackEvent.OFF || playbackEvent == newEvent) {
-      return PlaybackResult.STOP;
-    }
-
-    if (FileUtils.canRead(new File(fileName))) {
-      if (playbackEvent != PlaybackEvent.OFF && playback != null) {
-        try {
-          playback.get();
-        } catch (InterruptedException e) {
-          e.printStackTrace();
-          return PlaybackResult.ERROR;
-        } catch (ExecutionException e) {
-          e.printStackTrace();
-          return PlaybackResult.ERROR;
-        }
-      }
-      playback = new Playback(newEvent, fileName);
-      playback.execute();
-      return PlaybackResult.PLAY;
-    }
-
-    return PlaybackResult.ERROR;
-  }
-
-  public boolean playback(File file, PlaybackEvent newEvent) {
-    super.stopPlayback();
-
-    if (file == null || newEvent == null) {
-      return false;
-    }
-    if (newEvent == PlaybackEvent.OFF || playbackEvent == newEvent) {
-      return true;
-    }
-
-    if (FileUtils.canRead(file)) {
-      if (playbackEvent != PlaybackEvent.OFF && playback != null) {
-        try {
-          playback.get();
-        } catch (InterruptedException e) {
-          e.printStackTrace();
-          return false;
-        } catch (ExecutionException e) {
-          e.printStackTrace();
-          return false;
-        }
-      }
-      playback = new Playback(newEvent, file.getAbsolutePath());
-      playback.execute();
-      return true;
-    }
-
-    return false;
-  }
-
-  public boolean record(RecordInfo info, String beepFileName, boolean env) {
-    switch (recordingEvent) {
-      case OFF:
-        playback(beepFileName, PlaybackEvent.BEEP);
-        try {
-          Thread.sleep(marginTime);
-        } catch (InterruptedException e) {
-          e.printStackTrace();
-        }
-        super.record();
-        recordingEvent = RecordingEvent.ON;
-        return true;
-      case ON:
-        super.stopRecording();
-
-        if (info == null) {
-          return false;
-        }
-
-        boolean statusCode =
-            super.finalize(
-                info.getVoiceOrgFile().getAbsolutePath(),
-                info.getVoiceCutFile().getAbsolutePath(),
-                env);
-        info.setMaxAmplitude(getMaxAmplitude());
-        info.setTopSilence(getTopSilence());
-        info.setEndSilence(getEndSilence());
-        info.setPower(getPower());
-
-        if (statusCode) {
-          info.setStatus(RecordStatus.SUCCESS);
-        } else {
-          if (getTopSilence() < (double) getMinTopSilence() / 1000) {
-            info.setStatus(RecordStatus.FAILURE_TOP_SILENCE);
-          } else if (getEndSilence() < (double) getMinEndSilence() / 1000) {
-            info.setStatus(RecordStatus.FAILURE_END_SILENCE);
-          } else {
-            info.setStatus(RecordStatus.FAILURE);
-          }
-        }
-
-        super.clear();
-        recordingEvent = RecordingEvent.OFF;
-        return true;
-      default:
-        return false;
-    }
-  }
-
-  private class Playback extends SwingWorker<String, String> {
-    private final PlaybackEvent nextEvent;
-    private final String fileName;
-
-    public Playback(PlaybackEvent playbackEvent, String fileName) {
-      nextEvent = playbackEvent == null ? PlaybackEvent.OFF : playbackEvent;
-      this.fileName = fileName;
-    }
-
-    @Override
-    public String doInBackground() {
-      playbackEvent = nextEvent;
-      playback(fileName, nextEvent.ordinal());
-      playbackEvent = PlaybackEvent.OFF;
-      return null;
-    }
-  }
-
-  private class Stream extends SwingWorker<String, String> {
-    public Stream() {}
-
-    @Override
-    public String doInBackground() {
-      if (isOpen()) {
-        stopPlayback();
-        closeStream();
-      } else {
-        openStream();
-      }
-      return null;
-    }
-  }
-}
+// ------------------------------------------------------------------------ //
+// Copyright 2016 Nagoya Institute of Technology                            //
+//                                                                          //
+// Licensed under the Apache License, Version 2.0 (the "License");          //
+// you may not use this file except in compliance with the License.         //
+// You may obtain a copy of the License at                                  //
+//                                                                          //
+//     http://www.apache.org/licenses/LICENSE-2.0                           //
+//                                                                          //
+// Unless required by applicable law or agreed to in writing, software      //
+// distributed under the License is distributed on an "AS IS" BASIS,        //
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
+// See the License for the specific language governing permissions and      //
+// limitations under the License.                                           //
+// ------------------------------------------------------------------------ //
+
+package jp.ac.nitech.sp.voist;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import jp.ac.nitech.sp.voist.RecordInfo.RecordStatus;
+
+public class Audio implements AudioBackend {
+  public static enum PlaybackEvent {
+    OFF,
+    BEEP,
+    SAMPLE,
+    VOICE_ORG,
+    VOICE_CUT,
+    VOICE_TMP,
+    VOICE_WAV,
+  }
+
+  public static enum PlaybackResult {
+    PLAY,
+    STOP,
+    ERROR
+  }
+
+  public static enum RecordingEvent {
+    OFF,
+    ON,
+  }
+
+  // Maximum size [byte] of the beeps and samples kept in memory
+  private static final long CLIP_CACHE_SIZE = 64L * 1024 * 1024;
+
+  // Sound device
+  private final AudioBackend backend;
+
+  // Beeps and samples kept in memory
+  private final ClipCache clipCache;
+
+  // Number of threads reading and writing files other than the takes
+  private static final int NUM_IO_THREADS = 2;
+
+  // Thread capturing the input while the stream is open
+  private Thread stream;
+
+  // Single thread playing the clips
+  private final ExecutorService playbackExecutor;
+
+  // Threads loading clips and copying or uploading files
+  private final ExecutorService ioExecutor;
+
+  // Clip being played
+  private volatile Playback playback;
+
+  // Result of the last clip, completed when it is played or stopped
+  private volatile CompletableFuture<Boolean> playbackResult;
+
+  // Playback event
+  private volatile PlaybackEvent playbackEvent;
+
+  // Recording event
+  private RecordingEvent recordingEvent;
+
+  // Single thread writing the files of the takes in order
+  private final ExecutorService takeExecutor;
+
+  // Result of the last take, completed when its files are written
+  private volatile CompletableFuture<RecordInfo> takeResult;
+
+  // File the current take is recorded to
+  private String recordingFileName;
+
+  // Number of takes, used to name the recording files
+  private int numTakes;
+
+  public Audio() {
+    this(new CallPortAudio());
+  }
+
+  public Audio(AudioBackend backend) {
+    this.backend = backend;
+    backend.createInstance();
+    clipCache = new ClipCache(CLIP_CACHE_SIZE);
+    stream = null;
+    playbackExecutor =
+        Executors.newSingleThreadExecutor(newThreadFactory("AudioPlayback", Thread.MAX_PRIORITY));
+    ioExecutor =
+        Executors.newFixedThreadPool(
+            NUM_IO_THREADS, newThreadFactory("AudioIo", Thread.NORM_PRIORITY));
+    playback = null;
+    playbackResult = CompletableFuture.completedFuture(true);
+    playbackEvent = PlaybackEvent.OFF;
+    recordingEvent = RecordingEvent.OFF;
+    takeExecutor =
+        Executors.newSingleThreadExecutor(newThreadFactory("TakeWriter", Thread.NORM_PRIORITY));
+    takeResult = CompletableFuture.completedFuture(null);
+    recordingFileName = null;
+    numTakes = 0;
+  }
+
+  public PlaybackEvent getPlaybackEvent() {
+    return playbackEvent;
+  }
+
+  public RecordingEvent getRecordingEvent() {
+    return recordingEvent;
+  }
+
+  // Return the result of the last take. The statistics and the status of the
+  // take are set when record() returns, and the result is completed with the
+  // record of the take when its files are written, or with null if they
+  // cannot be written. Each take is given its own record and files, so that
+  // the next take never changes them meanwhile.
+  public CompletableFuture<RecordInfo> getTakeResult() {
+    return takeResult;
+  }
+
+  // Return the result of the last clip, which is true unless it cannot be
+  // played.
+  public CompletableFuture<Boolean> getPlaybackResult() {
+    return playbackResult;
+  }
+
+  // Tasks given to this executor, e.g. uploads, never delay the clips and
+  // the takes.
+  public Executor getIoExecutor() {
+    return ioExecutor;
+  }
+
+  // Tasks given to this executor run after the files of the previous takes
+  // are written, e.g. copying them.
+  public Executor getTakeExecutor() {
+    return takeExecutor;
+  }
+
+  // Return a future completed when the files of the takes and the tasks
+  // given to the take executor so far are written.
+  public CompletableFuture<Void> getTakesWritten() {
+    return CompletableFuture.runAsync(() -> {}, takeExecutor);
+  }
+
+  // Wait until the files of the takes and the tasks given to the take
+  // executor so far are written.
+  public void awaitTakes() {
+    try {
+      getTakesWritten().get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    } catch (ExecutionException e) {
+      e.printStackTrace();
+    }
+  }
+
+  public boolean open() {
+    if (!isOpen() && (stream == null || !stream.isAlive())) {
+      // The input is captured by its own thread while the stream is open.
+      stream = newThreadFactory("AudioStream", Thread.MAX_PRIORITY).newThread(new Stream());
+      stream.start();
+      return true;
+    }
+    return false;
+  }
+
+  // Close the stream without waiting for the capture thread to end.
+  public boolean close() {
+    if (isOpen()) {
+      stopPlayback();
+      closeStream();
+      return true;
+    }
+    return false;
+  }
+
+  public PlaybackResult playback(String fileName, PlaybackEvent newEvent) {
+    backend.stopPlayback();
+
+    if (fileName == null || newEvent == null) {
+      return PlaybackResult.STOP;
+    }
+    if (newEvent == PlaybackEvent.OFF || playbackEvent == newEvent) {
+      return PlaybackResult.STOP;
+    }
+
+    // The previous clip is stopped by the backend when the new one starts.
+    // Recorded voices may not be written yet, see Playback.
+    if (isVoice(newEvent) || FileUtils.canRead(new File(fileName))) {
+      start(new Playback(newEvent, fileName));
+      return PlaybackResult.PLAY;
+    }
+
+    return PlaybackResult.ERROR;
+  }
+
+  // Load the given files of the event into memory in background, so that they
+  // are played without reading the disk or converting the format. Preloaded
+  // files are never evicted.
+  public CompletableFuture<Void> preload(PlaybackEvent event, String... fileNames) {
+    return CompletableFuture.runAsync(new Prefetch(event, fileNames, true), ioExecutor);
+  }
+
+  public CompletableFuture<Void> prefetch(PlaybackEvent event, String... fileNames) {
+    return CompletableFuture.runAsync(new Prefetch(event, fileNames, false), ioExecutor);
+  }
+
+  public boolean playback(File file, PlaybackEvent newEvent) {
+    backend.stopPlayback();
+
+    if (file == null || newEvent == null) {
+      return false;
+    }
+    if (newEvent == PlaybackEvent.OFF || playbackEvent == newEvent) {
+      return true;
+    }
+
+    if (isVoice(newEvent) || FileUtils.canRead(file)) {
+      start(new Playback(newEvent, file.getAbsolutePath()));
+      return true;
+    }
+
+    return false;
+  }
+
+  @Override
+  public void setSampleRate(int rate) {
+    backend.setSampleRate(rate);
+    clipCache.clear();
+  }
+
+  @Override
+  public void setSampleSize(int size) {
+    backend.setSampleSize(size);
+    clipCache.clear();
+  }
+
+  @Override
+  public void setNumChannels(int num) {
+    backend.setNumChannels(num);
+    clipCache.clear();
+  }
+
+  @Override
+  public void setFloatFormat(boolean floatFormat) {
+    backend.setFloatFormat(floatFormat);
+    clipCache.clear();
+  }
+
+  @Override
+  public void setSampleRateForBeep(int rate) {
+    backend.setSampleRateForBeep(rate);
+    clipCache.clear();
+  }
+
+  @Override
+  public void setSampleSizeForBeep(int size) {
+    backend.setSampleSizeForBeep(size);
+    clipCache.clear();
+  }
+
+  @Override
+  public void setNumChannelsForBeep(int size) {
+    backend.setNumChannelsForBeep(size);
+    clipCache.clear();
+  }
+
+  @Override
+  public void setSampleRateForSample(int rate) {
+    backend.setSampleRateForSample(rate);
+    clipCache.clear();
+  }
+
+  @Override
+  public void setSampleSizeForSample(int size) {
+    backend.setSampleSizeForSample(size);
+    clipCache.clear();
+  }
+
+  @Override
+  public void setNumChannelsForSample(int size) {
+    backend.setNumChannelsForSample(size);
+    clipCache.clear();
+  }
+
+  @Override
+  public void setInputDevice(String name) {
+    backend.setInputDevice(name);
+  }
+
+  @Override
+  public void setOutputDevice(String name) {
+    backend.setOutputDevice(name);
+  }
+
+  @Override
+  public void setFramesPerBuffer(int num) {
+    backend.setFramesPerBuffer(num);
+  }
+
+  @Override
+  public void setSuggestedLatency(double time) {
+    backend.setSuggestedLatency(time);
+  }
+
+  @Override
+  public void setRecordingFile(String fileName) {
+    backend.setRecordingFile(fileName);
+  }
+
+  @Override
+  public void setMaxRecordingTime(int time) {
+    backend.setMaxRecordingTime(time);
+  }
+
+  @Override
+  public void setPreRollTime(int time) {
+    backend.setPreRollTime(time);
+  }
+
+  @Override
+  public void setBeepGuardTime(int time) {
+    backend.setBeepGuardTime(time);
+  }
+
+  @Override
+  public void setMinTopSilence(int time) {
+    backend.setMinTopSilence(time);
+  }
+
+  @Override
+  public void setMinEndSilence(int time) {
+    backend.setMinEndSilence(time);
+  }
+
+  @Override
+  public void setSilenceLevel(double level) {
+    backend.setSilenceLevel(level);
+  }
+
+  @Override
+  public void setNormalizationRatio(double ratio) {
+    backend.setNormalizationRatio(ratio);
+  }
+
+  @Override
+  public void setClipLevel(double level) {
+    backend.setClipLevel(level);
+  }
+
+  @Override
+  public void setMaxClips(int num) {
+    backend.setMaxClips(num);
+  }
+
+  @Override
+  public void setAutoStop(boolean autoStop) {
+    backend.setAutoStop(autoStop);
+  }
+
+  @Override
+  public void addAudioEventListener(AudioEventListener listener) {
+    backend.addAudioEventListener(listener);
+  }
+
+  @Override
+  public void addAudioLevelListener(AudioLevelListener listener) {
+    backend.addAudioLevelListener(listener);
+  }
+
+  @Override
+  public int getSampleRate() {
+    return backend.getSampleRate();
+  }
+
+  @Override
+  public int getSampleSize() {
+    return backend.getSampleSize();
+  }
+
+  @Override
+  public int getNumChannels() {
+    return backend.getNumChannels();
+  }
+
+  @Override
+  public boolean isFloatFormat() {
+    return backend.isFloatFormat();
+  }
+
+  @Override
+  public int getSampleRateForBeep() {
+    return backend.getSampleRateForBeep();
+  }
+
+  @Override
+  public int getSampleSizeForBeep() {
+    return backend.getSampleSizeForBeep();
+  }
+
+  @Override
+  public int getNumChannelsForBeep() {
+    return backend.getNumChannelsForBeep();
+  }
+
+  @Override
+  public int getSampleRateForSample() {
+    return backend.getSampleRateForSample();
+  }
+
+  @Override
+  public int getSampleSizeForSample() {
+    return backend.getSampleSizeForSample();
+  }
+
+  @Override
+  public int getNumChannelsForSample() {
+    return backend.getNumChannelsForSample();
+  }
+
+  @Override
+  public String getInputDevice() {
+    return backend.getInputDevice();
+  }
+
+  @Override
+  public String getOutputDevice() {
+    return backend.getOutputDevice();
+  }
+
+  @Override
+  public int getFramesPerBuffer() {
+    return backend.getFramesPerBuffer();
+  }
+
+  @Override
+  public double getSuggestedLatency() {
+    return backend.getSuggestedLatency();
+  }
+
+  @Override
+  public double getInputLatency() {
+    return backend.getInputLatency();
+  }
+
+  @Override
+  public double getOutputLatency() {
+    return backend.getOutputLatency();
+  }
+
+  @Override
+  public AudioDevice[] getDevices() {
+    return backend.getDevices();
+  }
+
+  @Override
+  public int getMaxRecordingTime() {
+    return backend.getMaxRecordingTime();
+  }
+
+  @Override
+  public int getPreRollTime() {
+    return backend.getPreRollTime();
+  }
+
+  @Override
+  public int getBeepGuardTime() {
+    return backend.getBeepGuardTime();
+  }
+
+  @Override
+  public int getMinTopSilence() {
+    return backend.getMinTopSilence();
+  }
+
+  @Override
+  public int getMinEndSilence() {
+    return backend.getMinEndSilence();
+  }
+
+  @Override
+  public double getSilenceLevel() {
+    return backend.getSilenceLevel();
+  }
+
+  @Override
+  public double getNormalizationRatio() {
+    return backend.getNormalizationRatio();
+  }
+
+  @Override
+  public double getClipLevel() {
+    return backend.getClipLevel();
+  }
+
+  @Override
+  public int getMaxClips() {
+    return backend.getMaxClips();
+  }
+
+  @Override
+  public boolean isAutoStop() {
+    return backend.isAutoStop();
+  }
+
+  @Override
+  public void createInstance() {
+    backend.createInstance();
+  }
+
+  @Override
+  public boolean openStream() {
+    return backend.openStream();
+  }
+
+  @Override
+  public void closeStream() {
+    backend.closeStream();
+  }
+
+  @Override
+  public boolean isOpen() {
+    return backend.isOpen();
+  }
+
+  @Override
+  public boolean playback(String fileName, int event) {
+    return backend.playback(fileName, event);
+  }
+
+  @Override
+  public boolean playback(ByteBuffer clip, int event) {
+    return backend.playback(clip, event);
+  }
+
+  @Override
+  public void stopPlayback() {
+    backend.stopPlayback();
+  }
+
+  @Override
+  public double measureLatency() {
+    return backend.measureLatency();
+  }
+
+  // Measure the latency on the playback thread, so that it does not overlap
+  // a clip.
+  public CompletableFuture<Double> measureLatencyAsync() {
+    stopPlayback();
+    return CompletableFuture.supplyAsync(backend::measureLatency, playbackExecutor);
+  }
+
+  @Override
+  public void record() {
+    backend.record();
+  }
+
+  @Override
+  public void scheduleRecording(int delay, boolean afterBeep) {
+    backend.scheduleRecording(delay, afterBeep);
+  }
+
+  @Override
+  public void stopRecording() {
+    backend.stopRecording();
+  }
+
+  @Override
+  public boolean measure(boolean env) {
+    return backend.measure(env);
+  }
+
+  @Override
+  public boolean writeTake(
+      String recordingFileName,
+      String orgFileName,
+      String cutFileName,
+      String wavFileName,
+      long cutBegin,
+      long cutEnd,
+      double scale) {
+    return backend.writeTake(
+        recordingFileName, orgFileName, cutFileName, wavFileName, cutBegin, cutEnd, scale);
+  }
+
+  @Override
+  public int getLevel() {
+    return backend.getLevel();
+  }
+
+  @Override
+  public int getRmsLevel() {
+    return backend.getRmsLevel();
+  }
+
+  @Override
+  public double getMaxAmplitude() {
+    return backend.getMaxAmplitude();
+  }
+
+  @Override
+  public double getRecordingOffset() {
+    return backend.getRecordingOffset();
+  }
+
+  @Override
+  public double getTopSilence() {
+    return backend.getTopSilence();
+  }
+
+  @Override
+  public double getEndSilence() {
+    return backend.getEndSilence();
+  }
+
+  @Override
+  public double getPower() {
+    return backend.getPower();
+  }
+
+  @Override
+  public int getNumClips() {
+    return backend.getNumClips();
+  }
+
+  @Override
+  public long getNumClippedSamples() {
+    return backend.getNumClippedSamples();
+  }
+
+  @Override
+  public double getClipPosition() {
+    return backend.getClipPosition();
+  }
+
+  @Override
+  public int getChannelLevel(int channel) {
+    return backend.getChannelLevel(channel);
+  }
+
+  @Override
+  public int getChannelRmsLevel(int channel) {
+    return backend.getChannelRmsLevel(channel);
+  }
+
+  @Override
+  public double getChannelMaxAmplitude(int channel) {
+    return backend.getChannelMaxAmplitude(channel);
+  }
+
+  @Override
+  public double getChannelTopSilence(int channel) {
+    return backend.getChannelTopSilence(channel);
+  }
+
+  @Override
+  public double getChannelEndSilence(int channel) {
+    return backend.getChannelEndSilence(channel);
+  }
+
+  @Override
+  public double getChannelPower(int channel) {
+    return backend.getChannelPower(channel);
+  }
+
+  @Override
+  public long getCutBegin() {
+    return backend.getCutBegin();
+  }
+
+  @Override
+  public long getCutEnd() {
+    return backend.getCutEnd();
+  }
+
+  @Override
+  public double getScale() {
+    return backend.getScale();
+  }
+
+  @Override
+  public void clear() {
+    backend.clear();
+  }
+
+  public boolean record(RecordInfo info, String beepFileName, boolean env) {
+    switch (recordingEvent) {
+      case OFF:
+        if (info != null) {
+          // The files of the previous take may still be written, so every take
+          // is recorded to its own file and moved when it is written.
+          recordingFileName = info.getVoiceOrgFile().getAbsolutePath() + "." + ++numTakes;
+          setRecordingFile(recordingFileName);
+        }
+        // The take starts at the end of the beep, which is found in frames by
+        // the backend. The pre-roll before it is prepended to the take, but
+        // never reaches back into the beep, see setBeepGuardTime().
+        boolean beep = playback(beepFileName, PlaybackEvent.BEEP) == PlaybackResult.PLAY;
+        backend.scheduleRecording(0, beep);
+        recordingEvent = RecordingEvent.ON;
+        return true;
+      case ON:
+        backend.stopRecording();
+
+        if (info == null) {
+          return false;
+        }
+
+        boolean statusCode = backend.measure(env);
+        info.setMaxAmplitude(getMaxAmplitude());
+        info.setRecordingOffset(getRecordingOffset());
+        info.setTopSilence(getTopSilence());
+        info.setEndSilence(getEndSilence());
+        info.setPower(getPower());
+        info.setNumClips(getNumClips());
+        info.setNumClippedSamples(getNumClippedSamples());
+        info.setClipPosition(getClipPosition());
+        info.setSampleSize(getSampleSize());
+        info.setFloatFormat(isFloatFormat());
+        info.setNumChannels(getNumChannels() > 1 ? getNumChannels() : 0);
+        for (int i = 0; i < info.getNumChannels(); i++) {
+          info.setChannelMaxAmplitude(i, getChannelMaxAmplitude(i));
+          info.setChannelTopSilence(i, getChannelTopSilence(i));
+          info.setChannelEndSilence(i, getChannelEndSilence(i));
+          info.setChannelPower(i, getChannelPower(i));
+        }
+
+        if (statusCode) {
+          info.setStatus(RecordStatus.SUCCESS);
+          info.setCutBegin(getCutBegin());
+          info.setCutEnd(getCutEnd());
+        } else {
+          info.setCutBegin(-1);
+          info.setCutEnd(-1);
+          if (getTopSilence() < (double) getMinTopSilence() / 1000) {
+            info.setStatus(RecordStatus.FAILURE_TOP_SILENCE);
+          } else if (getEndSilence() < (double) getMinEndSilence() / 1000) {
+            info.setStatus(RecordStatus.FAILURE_END_SILENCE);
+          } else {
+            info.setStatus(RecordStatus.FAILURE);
+          }
+        }
+
+        // The files are written in background while the next take is recorded.
+        takeResult = writeTake(info, getCutBegin(), getCutEnd(), getScale());
+
+        backend.clear();
+        recordingEvent = RecordingEvent.OFF;
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  private CompletableFuture<RecordInfo> writeTake(
+      RecordInfo info, long cutBegin, long cutEnd, double scale) {
+    String recordingFileName = this.recordingFileName;
+    String orgFileName = info.getVoiceOrgFile().getAbsolutePath();
+    String cutFileName = info.getVoiceCutFile().getAbsolutePath();
+    String wavFileName =
+        info.getVoiceWavFile() == null ? null : info.getVoiceWavFile().getAbsolutePath();
+    return CompletableFuture.supplyAsync(
+        () -> {
+          // The record is not changed here, since the GUI reads it meanwhile.
+          boolean written =
+              backend.writeTake(
+                  recordingFileName,
+                  orgFileName,
+                  cutFileName,
+                  wavFileName,
+                  cutBegin,
+                  cutEnd,
+                  scale);
+          return written ? info : null;
+        },
+        takeExecutor);
+  }
+
+  // Play the clip on the playback thread. Recorded voices are played after
+  // their files are written, without blocking the thread meanwhile.
+  private void start(Playback clip) {
+    playback = clip;
+    CompletableFuture<Void> ready =
+        isVoice(clip.nextEvent) ? getTakesWritten() : CompletableFuture.completedFuture(null);
+    playbackResult = ready.thenApplyAsync(v -> clip.play(), playbackExecutor);
+  }
+
+  private static ThreadFactory newThreadFactory(String name, int priority) {
+    return r -> {
+      Thread thread = new Thread(r, name);
+      thread.setDaemon(true);
+      thread.setPriority(priority);
+      return thread;
+    };
+  }
+
+  // Return the converter of the clips of the given event to the format of the
+  // stream, or null if they are already in the format.
+  private ClipConverter getConverter(PlaybackEvent event) {
+    ClipConverter converter;
+    if (event == PlaybackEvent.BEEP) {
+      converter =
+          new ClipConverter(
+              getSampleRateForBeep(),
+              getSampleSizeForBeep(),
+              getNumChannelsForBeep(),
+              getSampleRate(),
+              getSampleSize(),
+              getNumChannels(),
+              isFloatFormat());
+    } else if (event == PlaybackEvent.SAMPLE) {
+      converter =
+          new ClipConverter(
+              getSampleRateForSample(),
+              getSampleSizeForSample(),
+              getNumChannelsForSample(),
+              getSampleRate(),
+              getSampleSize(),
+              getNumChannels(),
+              isFloatFormat());
+    } else {
+      return null;
+    }
+    return converter.isIdentity() ? null : converter;
+  }
+
+  private static boolean isVoice(PlaybackEvent event) {
+    return event == PlaybackEvent.VOICE_ORG
+        || event == PlaybackEvent.VOICE_CUT
+        || event == PlaybackEvent.VOICE_TMP
+        || event == PlaybackEvent.VOICE_WAV;
+  }
+
+  private class Playback {
+    private final PlaybackEvent nextEvent;
+    private final String fileName;
+
+    public Playback(PlaybackEvent playbackEvent, String fileName) {
+      nextEvent = playbackEvent == null ? PlaybackEvent.OFF : playbackEvent;
+      this.fileName = fileName;
+    }
+
+    public boolean play() {
+      // A newer clip may have stopped this one.
+      if (playback != this) {
+        return true;
+      }
+      playbackEvent = nextEvent;
+      // Beeps and samples are played from memory in the format of the
+      // stream. The others are recorded voices, which are played from the
+      // files since they are already in the format.
+      ByteBuffer clip = null;
+      if (nextEvent == PlaybackEvent.BEEP || nextEvent == PlaybackEvent.SAMPLE) {
+        clip = clipCache.load(fileName, false, getConverter(nextEvent));
+      }
+      boolean result;
+      if (clip != null) {
+        result = playback(clip, nextEvent.ordinal());
+      } else {
+        result = playback(fileName, nextEvent.ordinal());
+      }
+      if (playback == this) {
+        playbackEvent = PlaybackEvent.OFF;
+      }
+      return result;
+    }
+  }
+
+  private class Prefetch implements Runnable {
+    private final PlaybackEvent event;
+    private final String[] fileNames;
+    private final boolean pinned;
+
+    public Prefetch(PlaybackEvent event, String[] fileNames, boolean pinned) {
+      this.event = event;
+      this.fileNames = fileNames;
+      this.pinned = pinned;
+    }
+
+    @Override
+    public void run() {
+      ClipConverter converter = getConverter(event);
+      for (String fileName : fileNames) {
+        if (fileName != null) {
+          clipCache.load(fileName, pinned, converter);
+        }
+      }
+    }
+  }
+
+  private class Stream implements Runnable {
+    public Stream() {}
+
+    @Override
+    public void run() {
+      openStream();
+    }
+  }
+}
@@ -0,0 +1,262 @@
+// ------------------------------------------------------------------------ //
+// Copyright 2016 Nagoya Institute of Technology                            //
+//                                                                          //
+// Licensed under the Apache License, Version 2.0 (the "License");          //
+// you may not use this file except in compliance with the License.         //
+// You may obtain a copy of the License at                                  //
+//                                                                          //
+//     http://www.apache.org/licenses/LICENSE-2.0                           //
+//                                                                          //
+// Unless required by applicable law or agreed to in writing, software      //
+// distributed under the License is distributed on an "AS IS" BASIS,        //
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
+// See the License for the specific language governing permissions and      //
+// limitations under the License.                                           //
+// ------------------------------------------------------------------------ //
+
+package jp.ac.nitech.sp.voist;
+
+import java.nio.ByteBuffer;
+
+// Sound device used by Audio. The stream is opened by openStream(), which
+// blocks and captures the input until closeStream() is called from another
+// thread. The stream is full duplex, and playback() blocks until the given
+// file is played through it. The file must be in the format of the stream.
+public interface AudioBackend {
+  // Suggested latencies meaning the default latencies of the devices
+  public static final double LOW_LATENCY = 0.0;
+
+  public static final double HIGH_LATENCY = -1.0;
+
+  // Maximum number of channels of the stream
+  public static final int MAX_CHANNELS = 8;
+
+  // Mutator
+  public void setSampleRate(int rate);
+
+  public void setSampleSize(int size);
+
+  public void setNumChannels(int num);
+
+  // Capture in 32-bit float, which requires the sample size of 4 bytes
+  public void setFloatFormat(boolean floatFormat);
+
+  // Format of the beep and sample files, which Audio converts to the format
+  // of the stream before they are played
+  public void setSampleRateForBeep(int rate);
+
+  public void setSampleSizeForBeep(int size);
+
+  public void setNumChannelsForBeep(int size);
+
+  public void setSampleRateForSample(int rate);
+
+  public void setSampleSizeForSample(int size);
+
+  public void setNumChannelsForSample(int size);
+
+  // Select the device by its name or full name, see AudioDevice. The default
+  // device is used if the name is empty or not found.
+  public void setInputDevice(String name);
+
+  public void setOutputDevice(String name);
+
+  // Frames per buffer of the stream, or 0 to let the host API choose it
+  public void setFramesPerBuffer(int num);
+
+  // Suggested latency [msec] of the stream, or LOW_LATENCY or HIGH_LATENCY.
+  // The device settings take effect when the stream is opened.
+  public void setSuggestedLatency(double time);
+
+  public void setRecordingFile(String fileName);
+
+  // Length [msec] of a take at which the listener is asked to stop it, or 0
+  // for no limit
+  public void setMaxRecordingTime(int time);
+
+  // Time [msec] captured before the start of a take
+  public void setPreRollTime(int time);
+
+  // Time [msec] after the end of the beep which is never in a take, even in
+  // its pre-roll, so that neither the beep nor its echo is recorded
+  public void setBeepGuardTime(int time);
+
+  public void setMinTopSilence(int time);
+
+  public void setMinEndSilence(int time);
+
+  public void setSilenceLevel(double level);
+
+  public void setNormalizationRatio(double ratio);
+
+  // Ratio to the full scale from which a sample is clipped
+  public void setClipLevel(double level);
+
+  // Clips, i.e. runs of clipped samples of a channel, allowed in a take. The
+  // listener is notified as soon as a take has more clips.
+  public void setMaxClips(int num);
+
+  // Ask the listener to stop a take once the silence after its speech is
+  // longer than the minimum end silence
+  public void setAutoStop(boolean autoStop);
+
+  // The listener is called from the capture thread.
+  public void addAudioEventListener(AudioEventListener listener);
+
+  // The listener is called from the capture thread after each block, and
+  // reads the level instead of getLevel().
+  public void addAudioLevelListener(AudioLevelListener listener);
+
+  // Accessor
+  public int getSampleRate();
+
+  public int getSampleSize();
+
+  public int getNumChannels();
+
+  public boolean isFloatFormat();
+
+  public int getSampleRateForBeep();
+
+  public int getSampleSizeForBeep();
+
+  public int getNumChannelsForBeep();
+
+  public int getSampleRateForSample();
+
+  public int getSampleSizeForSample();
+
+  public int getNumChannelsForSample();
+
+  public String getInputDevice();
+
+  public String getOutputDevice();
+
+  public int getFramesPerBuffer();
+
+  public double getSuggestedLatency();
+
+  // Latencies [msec] of the open stream reported by the host API
+  public double getInputLatency();
+
+  public double getOutputLatency();
+
+  // Devices of all host APIs
+  public AudioDevice[] getDevices();
+
+  public int getMaxRecordingTime();
+
+  public int getPreRollTime();
+
+  public int getBeepGuardTime();
+
+  public int getMinTopSilence();
+
+  public int getMinEndSilence();
+
+  public double getSilenceLevel();
+
+  public double getNormalizationRatio();
+
+  public double getClipLevel();
+
+  public int getMaxClips();
+
+  public boolean isAutoStop();
+
+  // Stream
+  public void createInstance();
+
+  public boolean openStream();
+
+  public void closeStream();
+
+  public boolean isOpen();
+
+  // Playback and recording
+  public boolean playback(String fileName, int event);
+
+  // The clip is a direct buffer holding the whole file, see ClipCache.
+  public boolean playback(ByteBuffer clip, int event);
+
+  public void stopPlayback();
+
+  // Play a click and find it in the input, e.g. through a loopback cable.
+  // Returns the round trip latency [msec], or -1 if the click is not found.
+  // This blocks for about a second.
+  public double measureLatency();
+
+  public void record();
+
+  // Start recording delay msec after the end of the beep being played, or
+  // after delay msec from now if afterBeep is false. Returns at once.
+  public void scheduleRecording(int delay, boolean afterBeep);
+
+  public void stopRecording();
+
+  // Measure the take stopped by stopRecording() and plan its cut, see
+  // getCutBegin(). Returns whether the take is accepted. This is fast since
+  // the statistics are collected while capturing.
+  public boolean measure(boolean env);
+
+  // Move the take recorded to the given file to orgFileName and write its
+  // frames [cutBegin, cutEnd) scaled by scale. Nothing is cut if cutBegin >=
+  // cutEnd. This may be called from another thread while the next take is
+  // recorded to another file.
+  public boolean writeTake(
+      String recordingFileName,
+      String orgFileName,
+      String cutFileName,
+      String wavFileName,
+      long cutBegin,
+      long cutEnd,
+      double scale);
+
+  // Level of the input and result of the last take
+  public int getLevel();
+
+  public int getRmsLevel();
+
+  public double getMaxAmplitude();
+
+  // Time [msec] from the end of the beep to the first frame of the take
+  public double getRecordingOffset();
+
+  public double getTopSilence();
+
+  public double getEndSilence();
+
+  public double getPower();
+
+  // Clips of the last take and the time [sec] of the first one from the start
+  // of the take, or -1 if the take is not clipped
+  public int getNumClips();
+
+  public long getNumClippedSamples();
+
+  public double getClipPosition();
+
+  // Levels of the given channel read by the last getLevel()
+  public int getChannelLevel(int channel);
+
+  public int getChannelRmsLevel(int channel);
+
+  // Result of the last take for the given channel. The silences and the power
+  // are measured with the scale and the speech interval of the whole take.
+  public double getChannelMaxAmplitude(int channel);
+
+  public double getChannelTopSilence(int channel);
+
+  public double getChannelEndSilence(int channel);
+
+  public double getChannelPower(int channel);
+
+  // Cut planned by the last measure()
+  public long getCutBegin();
+
+  public long getCutEnd();
+
+  public double getScale();
+
+  public void clear();
+}
@@ -0,0 +1,155 @@
+// ------------------------------------------------------------------------ //
+// Copyright 2016 Nagoya Institute of Technology                            //
+//                                                                          //
+// Licensed under the Apache License, Version 2.0 (the "License");          //
+// you may not use this file except in compliance with the License.         //
+// You may obtain a copy of the License at                                  //
+//                                                                          //
+//     http://www.apache.org/licenses/LICENSE-2.0                           //
+//                                                                          //
+// Unless required by applicable law or agreed to in writing, software      //
+// distributed under the License is distributed on an "AS IS" BASIS,        //
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
+// See the License for the specific language governing permissions and      //
+// limitations under the License.                                           //
+// ------------------------------------------------------------------------ //
+
+package jp.ac.nitech.sp.voist;
+
+// Device of a host API listed by AudioBackend.getDevices(). A device is
+// selected by its name, or by its full name prefixed by the host API.
+public class AudioDevice {
+  // Name of the host API, e.g. MME or ALSA
+  private final String hostApi;
+
+  //
+  private final String name;
+
+  //
+  private final int maxInputChannels;
+
+  //
+  private final int maxOutputChannels;
+
+  // Default latencies [msec] given by the driver
+  private final double lowInputLatency;
+
+  private final double highInputLatency;
+
+  private final double lowOutputLatency;
+
+  private final double highOutputLatency;
+
+  // [Hz]
+  private final double defaultSampleRate;
+
+  // Whether this is the default device of the system
+  private final boolean defaultInput;
+
+  private final boolean defaultOutput;
+
+  public AudioDevice(
+      String hostApi,
+      String name,
+      int maxInputChannels,
+      int maxOutputChannels,
+      double lowInputLatency,
+      double highInputLatency,
+      double lowOutputLatency,
+      double highOutputLatency,
+      double defaultSampleRate,
+      boolean defaultInput,
+      boolean defaultOutput) {
+    this.hostApi = hostApi;
+    this.name = name;
+    this.maxInputChannels = maxInputChannels;
+    this.maxOutputChannels = maxOutputChannels;
+    this.lowInputLatency = lowInputLatency;
+    this.highInputLatency = highInputLatency;
+    this.lowOutputLatency = lowOutputLatency;
+    this.highOutputLatency = highOutputLatency;
+    this.defaultSampleRate = defaultSampleRate;
+    this.defaultInput = defaultInput;
+    this.defaultOutput = defaultOutput;
+  }
+
+  public String getHostApi() {
+    return hostApi;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public String getFullName() {
+    return hostApi + ": " + name;
+  }
+
+  public int getMaxInputChannels() {
+    return maxInputChannels;
+  }
+
+  public int getMaxOutputChannels() {
+    return maxOutputChannels;
+  }
+
+  public double getLowInputLatency() {
+    return lowInputLatency;
+  }
+
+  public double getHighInputLatency() {
+    return highInputLatency;
+  }
+
+  public double getLowOutputLatency() {
+    return lowOutputLatency;
+  }
+
+  public double getHighOutputLatency() {
+    return highOutputLatency;
+  }
+
+  public double getDefaultSampleRate() {
+    return defaultSampleRate;
+  }
+
+  public boolean isDefaultInput() {
+    return defaultInput;
+  }
+
+  public boolean isDefaultOutput() {
+    return defaultOutput;
+  }
+
+  public boolean isInput() {
+    return maxInputChannels > 0;
+  }
+
+  public boolean isOutput() {
+    return maxOutputChannels > 0;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder sb = new StringBuilder(getFullName());
+    if (isInput()) {
+      sb.append(
+          String.format(
+              "  [in %d ch, %.1f-%.1f msec%s]",
+              maxInputChannels,
+              lowInputLatency,
+              highInputLatency,
+              defaultInput ? ", default" : ""));
+    }
+    if (isOutput()) {
+      sb.append(
+          String.format(
+              "  [out %d ch, %.1f-%.1f msec%s]",
+              maxOutputChannels,
+              lowOutputLatency,
+              highOutputLatency,
+              defaultOutput ? ", default" : ""));
+    }
+    return sb.toString();
+  }
+}
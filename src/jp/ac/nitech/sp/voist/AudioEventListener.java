@@ -0,0 +1,30 @@
+// ------------------------------------------------------------------------ //
+// Copyright 2016 Nagoya Institute of Technology                            //
+//                                                                          //
+// Licensed under the Apache License, Version 2.0 (the "License");          //
+// you may not use this file except in compliance with the License.         //
+// You may obtain a copy of the License at                                  //
+//                                                                          //
+//     http://www.apache.org/licenses/LICENSE-2.0                           //
+//                                                                          //
+// Unless required by applicable law or agreed to in writing, software      //
+// distributed under the License is distributed on an "AS IS" BASIS,        //
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
+// See the License for the specific language governing permissions and      //
+// limitations under the License.                                           //
+// ------------------------------------------------------------------------ //
+
+package jp.ac.nitech.sp.voist;
+
+import java.util.EventListener;
+
+// Events of the take being recorded. They are sent from the capture thread,
+// so the listener must not block and must not touch Swing components.
+public interface AudioEventListener extends EventListener {
+  // The take has clipped more than AudioBackend.getMaxClips() times.
+  public void clipped(AudioEvent e);
+
+  // The take should be stopped since its end silence has been detected or it
+  // has reached AudioBackend.getMaxRecordingTime().
+  public void stopRequested(AudioEvent e);
+}
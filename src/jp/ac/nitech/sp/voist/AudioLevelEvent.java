@@ -0,0 +1,74 @@
+// ------------------------------------------------------------------------ //
+// Copyright 2016 Nagoya Institute of Technology                            //
+//                                                                          //
+// Licensed under the Apache License, Version 2.0 (the "License");          //
+// you may not use this file except in compliance with the License.         //
+// You may obtain a copy of the License at                                  //
+//                                                                          //
+//     http://www.apache.org/licenses/LICENSE-2.0                           //
+//                                                                          //
+// Unless required by applicable law or agreed to in writing, software      //
+// distributed under the License is distributed on an "AS IS" BASIS,        //
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
+// See the License for the specific language governing permissions and      //
+// limitations under the License.                                           //
+// ------------------------------------------------------------------------ //
+
+package jp.ac.nitech.sp.voist;
+
+import java.util.EventObject;
+
+// Peak and RMS levels of the input captured since the last event
+public class AudioLevelEvent extends EventObject {
+  private static final long serialVersionUID = 1L;
+
+  // System.nanoTime() when the levels were read
+  private final long when;
+
+  //
+  private final int level;
+
+  //
+  private final int rmsLevel;
+
+  //
+  private final int[] channelLevels;
+
+  //
+  private final int[] channelRmsLevels;
+
+  // The arrays of the levels of the channels are owned by the event.
+  public AudioLevelEvent(
+      Object source, int level, int rmsLevel, int[] channelLevels, int[] channelRmsLevels) {
+    super(source);
+    when = System.nanoTime();
+    this.level = level;
+    this.rmsLevel = rmsLevel;
+    this.channelLevels = channelLevels;
+    this.channelRmsLevels = channelRmsLevels;
+  }
+
+  public long getWhen() {
+    return when;
+  }
+
+  public int getLevel() {
+    return level;
+  }
+
+  public int getRmsLevel() {
+    return rmsLevel;
+  }
+
+  public int getNumChannels() {
+    return channelLevels.length;
+  }
+
+  public int getChannelLevel(int channel) {
+    return channelLevels[channel];
+  }
+
+  public int getChannelRmsLevel(int channel) {
+    return channelRmsLevels[channel];
+  }
+}
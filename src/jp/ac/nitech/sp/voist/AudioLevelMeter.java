@@ -1,213 +1,327 @@
-// ------------------------------------------------------------------------ //
-// Copyright 2016 Nagoya Institute of Technology                            //
-//                                                                          //
-// Licensed under the Apache License, Version 2.0 (the "License");          //
-// you may not use this file except in compliance with the License.         //
-// You may obtain a copy of the License at                                  //
-//                                                                          //
-//     http://www.apache.org/licenses/LICENSE-2.0                           //
-//                                                                          //
-// Unless required by applicable law or agreed to in writing, software      //
-// distributed under the License is distributed on an "AS IS" BASIS,        //
-// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
-// See the License for the specific language governing permissions and      //
-// limitations under the License.                                           //
-// ------------------------------------------------------------------------ //
-
-package jp.ac.nitech.sp.voist;
-
-import java.awt.Color;
-import java.awt.Dimension;
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
-import java.util.Objects;
-import javax.swing.JPanel;
-import javax.swing.JProgressBar;
-import javax.swing.SwingConstants;
-import javax.swing.SwingWorker;
-
-public class AudioLevelMeter {
-  //
-  private final JProgressBar progressBar;
-
-  //
-  private LevelMeter levelMeter;
-
-  //
-  private boolean red;
-
-  //
-  private boolean green;
-
-  //
-  private double redLine;
-
-  //
-  private double greenLine;
-
-  //
-  private int sampleSize;
-
-  //
-  private double inverseMaxAmplitude;
-
-  public AudioLevelMeter(JPanel panel, int sampleSize) {
-    Objects.requireNonNull(panel);
-
-    progressBar = new JProgressBar();
-    progressBar.setBackground(Color.WHITE);
-    progressBar.setFocusable(false);
-    progressBar.setMaximumSize(new Dimension(400, 32767));
-    progressBar.setOrientation(SwingConstants.HORIZONTAL);
-    panel.add(progressBar);
-
-    red = false;
-    green = false;
-    redLine = 0.0;
-    greenLine = 0.0;
-    setSampleSize(sampleSize);
-  }
-
-  public boolean setRedLine(double rate) {
-    if (rate >= 0.0 && rate <= 1.0 && rate >= greenLine) {
-      redLine = rate;
-      return true;
-    }
-    return false;
-  }
-
-  public boolean setGreenLine(double rate) {
-    if (rate >= 0.0 && rate <= 1.0 && rate <= redLine) {
-      greenLine = rate;
-      return true;
-    }
-    return false;
-  }
-
-  public boolean setSampleSize(int sampleSize) {
-    if (sampleSize > 0) {
-      this.sampleSize = sampleSize;
-      inverseMaxAmplitude = 1.0 / (Math.pow(2.0, (sampleSize * 8)) * 0.5);
-      return true;
-    }
-    return false;
-  }
-
-  public double getRedLine() {
-    return redLine;
-  }
-
-  public double getGreenLine() {
-    return greenLine;
-  }
-
-  public int getSampleSize() {
-    return sampleSize;
-  }
-
-  public boolean isRed() {
-    return red;
-  }
-
-  public boolean isGreen() {
-    return green;
-  }
-
-  public void clear() {
-    red = false;
-    green = false;
-  }
-
-  public boolean start(Audio audio, int fps) {
-    if (audio == null || fps <= 0) {
-      return false;
-    }
-
-    levelMeter = new LevelMeter(audio, fps);
-    levelMeter.addPropertyChangeListener(
-        new PropertyChangeListener() {
-          @Override
-          public void propertyChange(PropertyChangeEvent e) {
-            if ("progress".equals(e.getPropertyName())) {
-              int progress = (Integer) e.getNewValue();
-              progressBar.setValue(progress);
-            }
-          }
-        });
-    levelMeter.execute();
-
-    return true;
-  }
-
-  public void stop() {
-    if (levelMeter != null) {
-      levelMeter.halt();
-    }
-  }
-
-  private class LevelMeter extends SwingWorker<String, String> {
-    // These values do not affect the decision of min/max rejection.
-    private static final int BIAS = 48;
-    private static final double DROP_SPEED = 1.4;
-
-    private final Audio audio;
-    private final long period;
-    private boolean halt;
-
-    public LevelMeter(Audio audio, int fps) {
-      this.audio = audio;
-      period = Math.round(1000.0 / fps);
-      halt = false;
-    }
-
-    public void halt() {
-      halt = true;
-    }
-
-    @Override
-    public String doInBackground() {
-      double nowDecibel = 0.0;
-      double newDecibel = 0.0;
-
-      setProgress(0);
-      while (!halt) {
-        try {
-          // Adjust the drawing speed of this component.
-          Thread.sleep(period);
-        } catch (InterruptedException e) {
-          e.printStackTrace();
-        }
-
-        newDecibel = convertLevelToDecibel(audio.getLevel());
-        nowDecibel = (newDecibel > nowDecibel) ? newDecibel : nowDecibel - DROP_SPEED;
-
-        // This component can be set 0 to 100.
-        setProgress(Math.min(Math.max((int) nowDecibel, 0), 100));
-
-        double rate = convertDecibelToRate(nowDecibel);
-        if (rate >= redLine) {
-          progressBar.setForeground(Color.RED);
-          red = true;
-          green = false;
-        } else if (rate >= greenLine) {
-          progressBar.setForeground(Color.GREEN);
-          if (!red) {
-            green = true;
-          }
-        } else {
-          progressBar.setForeground(Color.LIGHT_GRAY);
-        }
-      }
-
-      return null;
-    }
-
-    private double convertLevelToDecibel(int level) {
-      return (20.0 * Math.log10(level * inverseMaxAmplitude) + BIAS) / BIAS * 100.0;
-    }
-
-    private double convertDecibelToRate(double decibel) {
-      return Math.exp(0.0005 * BIAS * (decibel - 100.0) * Math.log(10.0));
-    }
-  }
-}
+// ------------------------------------------------------------------------ //
+// Copyright 2016 Nagoya Institute of Technology                            //
+//                                                                          //
+// Licensed under the Apache License, Version 2.0 (the "License");          //
+// you may not use this file except in compliance with the License.         //
+// You may obtain a copy of the License at                                  //
+//                                                                          //
+//     http://www.apache.org/licenses/LICENSE-2.0                           //
+//                                                                          //
+// Unless required by applicable law or agreed to in writing, software      //
+// distributed under the License is distributed on an "AS IS" BASIS,        //
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
+// See the License for the specific language governing permissions and      //
+// limitations under the License.                                           //
+// ------------------------------------------------------------------------ //
+
+package jp.ac.nitech.sp.voist;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.EventQueue;
+import java.awt.Graphics;
+import java.awt.Insets;
+import java.util.Arrays;
+import java.util.Objects;
+import javax.swing.JPanel;
+import javax.swing.JProgressBar;
+import javax.swing.SwingConstants;
+import javax.swing.Timer;
+
+// Level meter of the input with a bar for each channel. Each bar shows the
+// peak of its own channel, so that a quiet channel is not hidden by a loud
+// one, and the RMS of the channel as a darker bar inside it. The levels are
+// pushed by Audio for each captured block, and the bars are repainted on the
+// event dispatch thread at most fps times a second. The meter stops
+// repainting once the bars have fallen and no level is pushed, e.g. while no
+// stream is open.
+public class AudioLevelMeter implements AudioLevelListener {
+  // These values do not affect the decision of min/max rejection.
+  private static final int BIAS = 48;
+
+  // Speed [1/sec] at which a bar falls, as a percentage of its length
+  private static final double DROP_SPEED = 84.0;
+
+  //
+  private final LevelBar[] progressBars;
+
+  // Peak of each channel pushed since the last repaint, which also guards
+  // pending and running
+  private final int[] pendingLevels;
+
+  // RMS of each channel pushed since the last repaint
+  private final int[] pendingRmsLevels;
+
+  // Whether a level has been pushed since the last repaint
+  private boolean pending;
+
+  // Whether the timer is running or about to be started
+  private boolean running;
+
+  // Levels [%] shown by the bars, which are only accessed on the event
+  // dispatch thread
+  private final double[] nowDecibels;
+
+  // RMS levels [%] shown inside the bars
+  private final double[] nowRmsDecibels;
+
+  // System.nanoTime() of the last repaint
+  private long lastUpdate;
+
+  //
+  private volatile Timer timer;
+
+  //
+  private Audio audio;
+
+  //
+  private volatile boolean red;
+
+  //
+  private volatile boolean green;
+
+  //
+  private double redLine;
+
+  //
+  private double greenLine;
+
+  //
+  private int sampleSize;
+
+  //
+  private double inverseMaxAmplitude;
+
+  public AudioLevelMeter(JPanel panel, int sampleSize, int numChannels) {
+    Objects.requireNonNull(panel);
+
+    progressBars = new LevelBar[Math.min(Math.max(1, numChannels), AudioBackend.MAX_CHANNELS)];
+    for (int i = 0; i < progressBars.length; i++) {
+      LevelBar progressBar = new LevelBar();
+      progressBar.setBackground(Color.WHITE);
+      progressBar.setFocusable(false);
+      progressBar.setMaximumSize(new Dimension(400, 32767));
+      progressBar.setOrientation(SwingConstants.HORIZONTAL);
+      panel.add(progressBar);
+      progressBars[i] = progressBar;
+    }
+    pendingLevels = new int[progressBars.length];
+    pendingRmsLevels = new int[progressBars.length];
+    nowDecibels = new double[progressBars.length];
+    nowRmsDecibels = new double[progressBars.length];
+
+    red = false;
+    green = false;
+    redLine = 0.0;
+    greenLine = 0.0;
+    setSampleSize(sampleSize);
+  }
+
+  public boolean setRedLine(double rate) {
+    if (rate >= 0.0 && rate <= 1.0 && rate >= greenLine) {
+      redLine = rate;
+      return true;
+    }
+    return false;
+  }
+
+  public boolean setGreenLine(double rate) {
+    if (rate >= 0.0 && rate <= 1.0 && rate <= redLine) {
+      greenLine = rate;
+      return true;
+    }
+    return false;
+  }
+
+  public boolean setSampleSize(int sampleSize) {
+    if (sampleSize > 0) {
+      this.sampleSize = sampleSize;
+      inverseMaxAmplitude = 1.0 / (Math.pow(2.0, (sampleSize * 8)) * 0.5);
+      return true;
+    }
+    return false;
+  }
+
+  public double getRedLine() {
+    return redLine;
+  }
+
+  public double getGreenLine() {
+    return greenLine;
+  }
+
+  public int getSampleSize() {
+    return sampleSize;
+  }
+
+  public boolean isRed() {
+    return red;
+  }
+
+  public boolean isGreen() {
+    return green;
+  }
+
+  public void clear() {
+    red = false;
+    green = false;
+  }
+
+  public boolean start(Audio audio, int fps) {
+    if (audio == null || fps <= 0) {
+      return false;
+    }
+
+    stop();
+    synchronized (pendingLevels) {
+      running = false;
+    }
+    Timer timer = new Timer((int) Math.max(1, Math.round(1000.0 / fps)), e -> update());
+    timer.setCoalesce(true);
+    this.timer = timer;
+    this.audio = audio;
+    audio.addAudioLevelListener(this);
+
+    return true;
+  }
+
+  public void stop() {
+    if (audio != null) {
+      audio.addAudioLevelListener(null);
+      audio = null;
+    }
+    Timer timer = this.timer;
+    if (timer != null) {
+      timer.stop();
+      this.timer = null;
+    }
+  }
+
+  // Called from the capture thread. The levels are kept until the next
+  // repaint, and the timer is started unless it is running.
+  @Override
+  public void levelChanged(AudioLevelEvent e) {
+    boolean wake;
+    synchronized (pendingLevels) {
+      int numChannels = Math.min(pendingLevels.length, e.getNumChannels());
+      for (int i = 0; i < numChannels; i++) {
+        pendingLevels[i] = Math.max(pendingLevels[i], e.getChannelLevel(i));
+        pendingRmsLevels[i] = Math.max(pendingRmsLevels[i], e.getChannelRmsLevel(i));
+      }
+      pending = true;
+      wake = !running;
+      running = true;
+    }
+    if (wake) {
+      EventQueue.invokeLater(
+          () -> {
+            Timer timer = this.timer;
+            if (timer != null && !timer.isRunning()) {
+              lastUpdate = System.nanoTime();
+              update();
+              timer.start();
+            }
+          });
+    }
+  }
+
+  // Repaint the bars on the event dispatch thread. The bars fall by the time
+  // elapsed since the last repaint, so that the speed does not depend on the
+  // frame rate.
+  private void update() {
+    long now = System.nanoTime();
+    double drop = DROP_SPEED * (now - lastUpdate) / 1e9;
+    lastUpdate = now;
+
+    int[] levels;
+    int[] rmsLevels;
+    boolean fresh;
+    synchronized (pendingLevels) {
+      levels = Arrays.copyOf(pendingLevels, pendingLevels.length);
+      rmsLevels = Arrays.copyOf(pendingRmsLevels, pendingRmsLevels.length);
+      fresh = pending;
+      Arrays.fill(pendingLevels, 0);
+      Arrays.fill(pendingRmsLevels, 0);
+      pending = false;
+    }
+
+    boolean falling = false;
+    for (int i = 0; i < progressBars.length; i++) {
+      double newDecibel = fresh ? convertLevelToDecibel(levels[i]) : 0.0;
+      nowDecibels[i] = Math.max(0.0, Math.max(newDecibel, nowDecibels[i] - drop));
+      if (nowDecibels[i] > 0.0) {
+        falling = true;
+      }
+
+      // The RMS never exceeds the peak.
+      double newRmsDecibel = fresh ? convertLevelToDecibel(rmsLevels[i]) : 0.0;
+      double rmsDecibel = Math.max(newRmsDecibel, nowRmsDecibels[i] - drop);
+      nowRmsDecibels[i] = Math.max(0.0, Math.min(nowDecibels[i], rmsDecibel));
+
+      // This component can be set 0 to 100.
+      progressBars[i].setValue(Math.min((int) nowDecibels[i], 100));
+      progressBars[i].setRmsValue(Math.min((int) nowRmsDecibels[i], 100));
+
+      // The take is judged by the loudest channel.
+      double rate = convertDecibelToRate(nowDecibels[i]);
+      if (rate >= redLine) {
+        progressBars[i].setForeground(Color.RED);
+        red = true;
+        green = false;
+      } else if (rate >= greenLine) {
+        progressBars[i].setForeground(Color.GREEN);
+        if (!red) {
+          green = true;
+        }
+      } else {
+        progressBars[i].setForeground(Color.LIGHT_GRAY);
+      }
+    }
+
+    // Idle until the next level is pushed.
+    if (!fresh && !falling) {
+      synchronized (pendingLevels) {
+        Timer timer = this.timer;
+        if (!pending && timer != null) {
+          timer.stop();
+          running = false;
+        }
+      }
+    }
+  }
+
+  private double convertLevelToDecibel(int level) {
+    return (20.0 * Math.log10(level * inverseMaxAmplitude) + BIAS) / BIAS * 100.0;
+  }
+
+  private double convertDecibelToRate(double decibel) {
+    return Math.exp(0.0005 * BIAS * (decibel - 100.0) * Math.log(10.0));
+  }
+
+  // Bar of one channel, which draws the RMS as a thinner bar in a darker
+  // color inside the peak.
+  private static class LevelBar extends JProgressBar {
+    private static final long serialVersionUID = 1L;
+
+    // RMS level [%] in the same scale as the value
+    private int rmsValue;
+
+    public void setRmsValue(int value) {
+      if (rmsValue != value) {
+        rmsValue = value;
+        repaint();
+      }
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+      super.paintComponent(g);
+      Insets insets = getInsets();
+      int width = getWidth() - insets.left - insets.right;
+      int height = getHeight() - insets.top - insets.bottom;
+      int margin = height / 3;
+      g.setColor(getForeground().darker());
+      g.fillRect(insets.left, insets.top + margin, width * rmsValue / 100, height - 2 * margin);
+    }
+  }
+}
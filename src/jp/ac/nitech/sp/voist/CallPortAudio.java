@@ -1,166 +1,430 @@
-// ------------------------------------------------------------------------ //
-// Copyright 2016 Nagoya Institute of Technology                            //
-//                                                                          //
-// Licensed under the Apache License, Version 2.0 (the "License");          //
-// you may not use this file except in compliance with the License.         //
-// You may obtain a copy of the License at                                  //
-//                                                                          //
-//     http://www.apache.org/licenses/LICENSE-2.0                           //
-//                                                                          //
-// Unless required by applicable law or agreed to in writing, software      //
-// distributed under the License is distributed on an "AS IS" BASIS,        //
-// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
-// See the License for the specific language governing permissions and      //
-// limitations under the License.                                           //
-// ------------------------------------------------------------------------ //
-
-package jp.ac.nitech.sp.voist;
-
-import javax.swing.JOptionPane;
-
-public class CallPortAudio {
-  static {
-    try {
-      if (PlatformUtils.isWindows()) {
-        System.loadLibrary("CallPortAudio");
-      } else if (PlatformUtils.isLinux()) {
-        System.loadLibrary("callportaudio");
-      } else {
-        JOptionPane.showMessageDialog(
-            null, "This OS is not supported.", "Error", JOptionPane.ERROR_MESSAGE);
-        throw new UnsupportedOperationException();
-      }
-    } catch (UnsatisfiedLinkError e) {
-      e.printStackTrace();
-      JOptionPane.showMessageDialog(
-          null, "Cannot link PortAudio.", "Error", JOptionPane.ERROR_MESSAGE);
-    }
-  }
-
-  // Sound level
-  private int level;
-
-  // Maximum amplitude
-  private double maxAmplitude;
-
-  // Top silence
-  private double topSilence;
-
-  // End silence
-  private double endSilence;
-
-  // Power
-  private double power;
-
-  // Mutator
-  public native void setSampleRate(int rate);
-
-  public native void setSampleSize(int size);
-
-  public native void setNumChannels(int num);
-
-  public native void setSampleRateForBeep(int rate);
-
-  public native void setSampleSizeForBeep(int size);
-
-  public native void setNumChannelsForBeep(int size);
-
-  public native void setSampleRateForSample(int rate);
-
-  public native void setSampleSizeForSample(int size);
-
-  public native void setNumChannelsForSample(int size);
-
-  public native void setMaxRecordingTime(int time);
-
-  public native void setMinTopSilence(int time);
-
-  public native void setMinEndSilence(int time);
-
-  public native void setSilenceLevel(double level);
-
-  public native void setNormalizationRatio(double ratio);
-
-  // Accessor
-  public native int getSampleRate();
-
-  public native int getSampleSize();
-
-  public native int getNumChannels();
-
-  public native int getSampleRateForBeep();
-
-  public native int getSampleSizeForBeep();
-
-  public native int getNumChannelsForBeep();
-
-  public native int getSampleRateForSample();
-
-  public native int getSampleSizeForSample();
-
-  public native int getNumChannelsForSample();
-
-  public native int getMaxRecordingTime();
-
-  public native int getMinTopSilence();
-
-  public native int getMinEndSilence();
-
-  public native double getSilenceLevel();
-
-  public native double getNormalizationRatio();
-
-  // Stream
-  public native void createInstance();
-
-  public native boolean openStream();
-
-  public native void closeStream();
-
-  public native boolean isOpen();
-
-  // Playback and recording
-  public native boolean playback(String fileName, int event);
-
-  public native void stopPlayback();
-
-  public native void record();
-
-  public native void stopRecording();
-
-  public native boolean finalize(String orgFileName, String cutFileName, boolean env);
-
-  public CallPortAudio() {
-    clear();
-  }
-
-  public int getLevel() {
-    int l = level;
-    level = 0;
-    return l;
-  }
-
-  public double getMaxAmplitude() {
-    return maxAmplitude;
-  }
-
-  public double getTopSilence() {
-    return topSilence;
-  }
-
-  public double getEndSilence() {
-    return endSilence;
-  }
-
-  public double getPower() {
-    return power;
-  }
-
-  public void clear() {
-    level = 0;
-    maxAmplitude = 0.0;
-    topSilence = 0.0;
-    endSilence = 0.0;
-    power = 0.0;
-  }
-}
+// ------------------------------------------------------------------------ //
+// Copyright 2016 Nagoya Institute of Technology                            //
+//                                                                          //
+// Licensed under the Apache License, Version 2.0 (the "License");          //
+// you may not use this file except in compliance with the License.         //
+// You may obtain a copy of the License at                                  //
+//                                                                          //
+//     http://www.apache.org/licenses/LICENSE-2.0                           //
+//                                                                          //
+// Unless required by applicable law or agreed to in writing, software      //
+// distributed under the License is distributed on an "AS IS" BASIS,        //
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
+// See the License for the specific language governing permissions and      //
+// limitations under the License.                                           //
+// ------------------------------------------------------------------------ //
+
+package jp.ac.nitech.sp.voist;
+
+import java.awt.GraphicsEnvironment;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import javax.swing.JOptionPane;
+
+public class CallPortAudio implements AudioBackend {
+  static {
+    try {
+      if (PlatformUtils.isWindows()) {
+        System.loadLibrary("CallPortAudio");
+      } else if (PlatformUtils.isLinux()) {
+        System.loadLibrary("callportaudio");
+      } else {
+        showError("This OS is not supported.");
+        throw new UnsupportedOperationException();
+      }
+    } catch (UnsatisfiedLinkError e) {
+      e.printStackTrace();
+      showError("Cannot link PortAudio.");
+    }
+  }
+
+  // Number of blocks whose level is kept in the level buffer
+  private static final int NUM_LEVEL_SLOTS = 64;
+
+  // Number of levels in a slot, i.e. the peak and RMS of the block and of each channel
+  private static final int LEVEL_SLOT_SIZE = 2 * (1 + MAX_CHANNELS);
+
+  private static final VarHandle LEVEL_VIEW =
+      MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+  // Peak and RMS of every captured block and of its channels, published by the native side
+  private final ByteBuffer levelBuffer;
+
+  // Number of blocks already read from the level buffer
+  private long levelCount;
+
+  // RMS level of the blocks read by the last getLevel()
+  private int rmsLevel;
+
+  // Peak and RMS levels of each channel of the blocks read by the last getLevel()
+  private final int[] channelLevels;
+
+  private final int[] channelRmsLevels;
+
+  // Maximum amplitude
+  private double maxAmplitude;
+
+  // Recording offset
+  private double recordingOffset;
+
+  // Top silence
+  private double topSilence;
+
+  // End silence
+  private double endSilence;
+
+  // Power
+  private double power;
+
+  // Clips of the take, set by the native side
+  private int numClips;
+
+  private long numClippedSamples;
+
+  private double clipPosition;
+
+  // Listener of the events of the take
+  private volatile AudioEventListener listener;
+
+  // Listener of the level of the input
+  private volatile AudioLevelListener levelListener;
+
+  // First frame to be cut
+  private long cutBegin;
+
+  // End frame to be cut
+  private long cutEnd;
+
+  // Normalization scale
+  private double scale;
+
+  // Maximum amplitude, top silence, end silence and power of each channel,
+  // set by the native side
+  private final double[] channelStatistics;
+
+  // Mutator
+  public native void setSampleRate(int rate);
+
+  public native void setSampleSize(int size);
+
+  public native void setNumChannels(int num);
+
+  public native void setFloatFormat(boolean floatFormat);
+
+  public native void setSampleRateForBeep(int rate);
+
+  public native void setSampleSizeForBeep(int size);
+
+  public native void setNumChannelsForBeep(int size);
+
+  public native void setSampleRateForSample(int rate);
+
+  public native void setSampleSizeForSample(int size);
+
+  public native void setNumChannelsForSample(int size);
+
+  public native void setInputDevice(String name);
+
+  public native void setOutputDevice(String name);
+
+  public native void setFramesPerBuffer(int num);
+
+  public native void setSuggestedLatency(double time);
+
+  public native void setRecordingFile(String fileName);
+
+  public native void setMaxRecordingTime(int time);
+
+  public native void setPreRollTime(int time);
+
+  public native void setBeepGuardTime(int time);
+
+  public native void setMinTopSilence(int time);
+
+  public native void setMinEndSilence(int time);
+
+  public native void setSilenceLevel(double level);
+
+  public native void setNormalizationRatio(double ratio);
+
+  public native void setClipLevel(double level);
+
+  public native void setMaxClips(int num);
+
+  public native void setAutoStop(boolean autoStop);
+
+  // Replay the given raw file as the input, or silence if it is null, instead
+  // of opening the devices. See FileReplayBackend.
+  protected native void setReplay(String fileName, double speed);
+
+  // Accessor
+  public native int getSampleRate();
+
+  public native int getSampleSize();
+
+  public native int getNumChannels();
+
+  public native boolean isFloatFormat();
+
+  public native int getSampleRateForBeep();
+
+  public native int getSampleSizeForBeep();
+
+  public native int getNumChannelsForBeep();
+
+  public native int getSampleRateForSample();
+
+  public native int getSampleSizeForSample();
+
+  public native int getNumChannelsForSample();
+
+  public native String getInputDevice();
+
+  public native String getOutputDevice();
+
+  public native int getFramesPerBuffer();
+
+  public native double getSuggestedLatency();
+
+  public native double getInputLatency();
+
+  public native double getOutputLatency();
+
+  public native AudioDevice[] getDevices();
+
+  public native int getMaxRecordingTime();
+
+  public native int getPreRollTime();
+
+  public native int getBeepGuardTime();
+
+  public native int getMinTopSilence();
+
+  public native int getMinEndSilence();
+
+  public native double getSilenceLevel();
+
+  public native double getNormalizationRatio();
+
+  public native double getClipLevel();
+
+  public native int getMaxClips();
+
+  public native boolean isAutoStop();
+
+  // Stream
+  public native void createInstance();
+
+  public native boolean openStream();
+
+  public native void closeStream();
+
+  public native boolean isOpen();
+
+  // Playback and recording
+  public native boolean playback(String fileName, int event);
+
+  // Overloaded native methods would change the names of the JNI functions.
+  private native boolean playbackBuffer(ByteBuffer clip, int event);
+
+  public boolean playback(ByteBuffer clip, int event) {
+    return playbackBuffer(clip, event);
+  }
+
+  public native void stopPlayback();
+
+  public native double measureLatency();
+
+  public native void record();
+
+  public native void scheduleRecording(int delay, boolean afterBeep);
+
+  public native void stopRecording();
+
+  public native boolean measure(boolean env);
+
+  public native boolean writeTake(
+      String recordingFileName,
+      String orgFileName,
+      String cutFileName,
+      String wavFileName,
+      long cutBegin,
+      long cutEnd,
+      double scale);
+
+  public CallPortAudio() {
+    levelBuffer =
+        ByteBuffer.allocateDirect(Long.BYTES * (1 + LEVEL_SLOT_SIZE * NUM_LEVEL_SLOTS))
+            .order(ByteOrder.nativeOrder());
+    channelLevels = new int[MAX_CHANNELS];
+    channelRmsLevels = new int[MAX_CHANNELS];
+    channelStatistics = new double[4 * MAX_CHANNELS];
+    clear();
+  }
+
+  // Return the peak level of the blocks captured since the last call.
+  public int getLevel() {
+    long count = (long) LEVEL_VIEW.getAcquire(levelBuffer, 0);
+    long first = Math.max(levelCount, count - NUM_LEVEL_SLOTS);
+    // The 0th pair is the whole block, and the others are its channels.
+    long[] peaks = new long[1 + MAX_CHANNELS];
+    double[] sqrs = new double[1 + MAX_CHANNELS];
+    // A slot overwritten while reading holds a newer block, which is harmless here.
+    for (long n = first; n < count; n++) {
+      int index = 1 + LEVEL_SLOT_SIZE * (int) (n % NUM_LEVEL_SLOTS);
+      for (int i = 0; i < peaks.length; i++) {
+        long rms = levelBuffer.getLong(Long.BYTES * (index + 2 * i + 1));
+        peaks[i] = Math.max(peaks[i], levelBuffer.getLong(Long.BYTES * (index + 2 * i)));
+        sqrs[i] += (double) rms * rms;
+      }
+    }
+    for (int i = 0; i < MAX_CHANNELS; i++) {
+      channelLevels[i] = (int) peaks[i + 1];
+      channelRmsLevels[i] =
+          (first < count) ? (int) Math.round(Math.sqrt(sqrs[i + 1] / (count - first))) : 0;
+    }
+    rmsLevel = (first < count) ? (int) Math.round(Math.sqrt(sqrs[0] / (count - first))) : 0;
+    levelCount = count;
+    return (int) peaks[0];
+  }
+
+  public int getRmsLevel() {
+    return rmsLevel;
+  }
+
+  public int getChannelLevel(int channel) {
+    return channelLevels[channel];
+  }
+
+  public int getChannelRmsLevel(int channel) {
+    return channelRmsLevels[channel];
+  }
+
+  public double getMaxAmplitude() {
+    return maxAmplitude;
+  }
+
+  public double getRecordingOffset() {
+    return recordingOffset;
+  }
+
+  public double getTopSilence() {
+    return topSilence;
+  }
+
+  public double getEndSilence() {
+    return endSilence;
+  }
+
+  public double getPower() {
+    return power;
+  }
+
+  public int getNumClips() {
+    return numClips;
+  }
+
+  public long getNumClippedSamples() {
+    return numClippedSamples;
+  }
+
+  public double getClipPosition() {
+    return clipPosition;
+  }
+
+  public void addAudioEventListener(AudioEventListener listener) {
+    this.listener = listener;
+  }
+
+  // Called by the native side from the capture thread.
+  private void clipped() {
+    AudioEventListener listener = this.listener;
+    if (listener != null) {
+      listener.clipped(new AudioEvent(this));
+    }
+  }
+
+  public void addAudioLevelListener(AudioLevelListener listener) {
+    levelListener = listener;
+  }
+
+  // Called by the native side from the capture thread after each block.
+  private void levelPublished() {
+    AudioLevelListener listener = levelListener;
+    if (listener != null) {
+      int level = getLevel();
+      int numChannels = getNumChannels();
+      listener.levelChanged(
+          new AudioLevelEvent(
+              this,
+              level,
+              rmsLevel,
+              Arrays.copyOf(channelLevels, numChannels),
+              Arrays.copyOf(channelRmsLevels, numChannels)));
+    }
+  }
+
+  // Called by the native side from the capture thread.
+  private void stopRequested() {
+    AudioEventListener listener = this.listener;
+    if (listener != null) {
+      listener.stopRequested(new AudioEvent(this));
+    }
+  }
+
+  public double getChannelMaxAmplitude(int channel) {
+    return channelStatistics[4 * channel];
+  }
+
+  public double getChannelTopSilence(int channel) {
+    return channelStatistics[4 * channel + 1];
+  }
+
+  public double getChannelEndSilence(int channel) {
+    return channelStatistics[4 * channel + 2];
+  }
+
+  public double getChannelPower(int channel) {
+    return channelStatistics[4 * channel + 3];
+  }
+
+  public long getCutBegin() {
+    return cutBegin;
+  }
+
+  public long getCutEnd() {
+    return cutEnd;
+  }
+
+  public double getScale() {
+    return scale;
+  }
+
+  public void clear() {
+    maxAmplitude = 0.0;
+    recordingOffset = 0.0;
+    topSilence = 0.0;
+    endSilence = 0.0;
+    power = 0.0;
+    numClips = 0;
+    numClippedSamples = 0;
+    clipPosition = -1.0;
+    cutBegin = 0;
+    cutEnd = 0;
+    scale = 1.0;
+    Arrays.fill(channelStatistics, 0.0);
+  }
+
+  // Without a display, e.g. when benchmarked, the error is only logged since
+  // a dialog cannot be shown.
+  private static void showError(String message) {
+    if (GraphicsEnvironment.isHeadless()) {
+      VoistUtils.warn(message, "CallPortAudio");
+    } else {
+      JOptionPane.showMessageDialog(null, message, "Error", JOptionPane.ERROR_MESSAGE);
+    }
+  }
+}
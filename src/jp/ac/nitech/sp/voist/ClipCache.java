@@ -0,0 +1,185 @@
+// ------------------------------------------------------------------------ //
+// Copyright 2016 Nagoya Institute of Technology                            //
+//                                                                          //
+// Licensed under the Apache License, Version 2.0 (the "License");          //
+// you may not use this file except in compliance with the License.         //
+// You may obtain a copy of the License at                                  //
+//                                                                          //
+//     http://www.apache.org/licenses/LICENSE-2.0                           //
+//                                                                          //
+// Unless required by applicable law or agreed to in writing, software      //
+// distributed under the License is distributed on an "AS IS" BASIS,        //
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
+// See the License for the specific language governing permissions and      //
+// limitations under the License.                                           //
+// ------------------------------------------------------------------------ //
+
+package jp.ac.nitech.sp.voist;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Clips played by Audio, kept in memory. A clip is a direct buffer holding the
+// whole file, which is read when it is put, so that playing it reads no file,
+// or the file converted to the format of the stream by ClipConverter. The file
+// is not mapped, since a mapping keeps the file locked on Windows until it is
+// garbage collected.
+// The least recently used clips are evicted when the total size exceeds the
+// capacity. Pinned clips, e.g. beeps, are never evicted.
+class ClipCache {
+  private static class Clip {
+    //
+    private final ByteBuffer buffer;
+
+    // Last modified time of the file when it was read
+    private final long lastModified;
+
+    // Length of the file, which differs from the clip if it is converted
+    private final long length;
+
+    //
+    private boolean pinned;
+
+    public Clip(ByteBuffer buffer, long lastModified, long length, boolean pinned) {
+      this.buffer = buffer;
+      this.lastModified = lastModified;
+      this.length = length;
+      this.pinned = pinned;
+    }
+  }
+
+  // Maximum total size [byte] of the clips which are not pinned
+  private final long capacity;
+
+  // Clips in access order
+  private final LinkedHashMap<String, Clip> clips;
+
+  // Total size [byte] of the clips which are not pinned
+  private long size;
+
+  // Number of times the cache has been cleared
+  private long generation;
+
+  public ClipCache(long capacity) {
+    this.capacity = capacity;
+    clips = new LinkedHashMap<String, Clip>(16, 0.75f, true);
+    size = 0;
+    generation = 0;
+  }
+
+  // Return the clip of the given file, or null if it is not cached or the
+  // file has been changed since it was cached.
+  public synchronized ByteBuffer get(String fileName) {
+    File file = new File(fileName);
+    String key = file.getAbsolutePath();
+    Clip clip = clips.get(key);
+    if (clip == null) {
+      return null;
+    }
+    if (clip.lastModified != file.lastModified() || clip.length != file.length()) {
+      remove(key);
+      return null;
+    }
+    return clip.buffer.duplicate();
+  }
+
+  // Read the given file, convert it by the converter unless it is null and put
+  // it to the cache, unless it is already cached. Return the clip, or null if
+  // the file cannot be read. A clip larger than the capacity is returned
+  // without being cached, and so is a clip read while the cache is cleared,
+  // e.g. since the format of the stream is changed, so that a clip in the
+  // old format is never put back.
+  public ByteBuffer load(String fileName, boolean pinned, ClipConverter converter) {
+    long loadedGeneration = getGeneration();
+    ByteBuffer cached = get(fileName);
+    if (cached != null) {
+      if (pinned) {
+        pin(fileName);
+      }
+      return cached;
+    }
+
+    File file = new File(fileName);
+    if (!FileUtils.canRead(file)) {
+      return null;
+    }
+
+    // The file is read and converted outside the lock.
+    long lastModified = file.lastModified();
+    long length = file.length();
+    ByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      ByteBuffer data = ByteBuffer.allocateDirect((int) channel.size());
+      while (data.hasRemaining()) {
+        if (channel.read(data) < 0) {
+          break;
+        }
+      }
+      data.flip();
+      buffer = converter == null ? data : converter.convert(data);
+    } catch (IOException e) {
+      e.printStackTrace();
+      return null;
+    }
+
+    if (pinned || buffer.capacity() <= capacity) {
+      put(file.getAbsolutePath(), new Clip(buffer, lastModified, length, pinned), loadedGeneration);
+    }
+    return buffer.duplicate();
+  }
+
+  public synchronized void clear() {
+    clips.clear();
+    size = 0;
+    generation++;
+  }
+
+  private synchronized long getGeneration() {
+    return generation;
+  }
+
+  private synchronized void pin(String fileName) {
+    Clip clip = clips.get(new File(fileName).getAbsolutePath());
+    if (clip != null && !clip.pinned) {
+      clip.pinned = true;
+      size -= clip.buffer.capacity();
+    }
+  }
+
+  // Put the clip read in the given generation, unless the cache has been
+  // cleared since then.
+  private synchronized void put(String key, Clip clip, long loadedGeneration) {
+    if (loadedGeneration != generation) {
+      return;
+    }
+    remove(key);
+    clips.put(key, clip);
+    if (clip.pinned) {
+      return;
+    }
+    size += clip.buffer.capacity();
+
+    // Evict the least recently used clips except the new one.
+    Iterator<Map.Entry<String, Clip>> it = clips.entrySet().iterator();
+    while (capacity < size && it.hasNext()) {
+      Map.Entry<String, Clip> entry = it.next();
+      if (!entry.getValue().pinned && entry.getValue() != clip) {
+        size -= entry.getValue().buffer.capacity();
+        it.remove();
+      }
+    }
+  }
+
+  private void remove(String key) {
+    Clip clip = clips.remove(key);
+    if (clip != null && !clip.pinned) {
+      size -= clip.buffer.capacity();
+    }
+  }
+}
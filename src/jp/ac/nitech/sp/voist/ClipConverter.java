@@ -0,0 +1,216 @@
+// ------------------------------------------------------------------------ //
+// Copyright 2016 Nagoya Institute of Technology                            //
+//                                                                          //
+// Licensed under the Apache License, Version 2.0 (the "License");          //
+// you may not use this file except in compliance with the License.         //
+// You may obtain a copy of the License at                                  //
+//                                                                          //
+//     http://www.apache.org/licenses/LICENSE-2.0                           //
+//                                                                          //
+// Unless required by applicable law or agreed to in writing, software      //
+// distributed under the License is distributed on an "AS IS" BASIS,        //
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
+// See the License for the specific language governing permissions and      //
+// limitations under the License.                                           //
+// ------------------------------------------------------------------------ //
+
+package jp.ac.nitech.sp.voist;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+// Converter of a clip to the format of the stream, so that beeps and samples
+// recorded in other formats are played by the one duplex stream of the sound
+// device. The sample rate is converted by a Kaiser windowed sinc filter, and
+// the channels are averaged or repeated. The clip is converted once when it
+// is loaded into ClipCache.
+class ClipConverter {
+  // Number of zero crossings of the filter on each side
+  private static final int NUM_ZERO_CROSSINGS = 32;
+
+  // Number of points of the filter table between two zero crossings
+  private static final int TABLE_RESOLUTION = 512;
+
+  // Parameter of the Kaiser window, which gives the stopband of about 90 dB
+  private static final double KAISER_BETA = 8.6;
+
+  // Cutoff frequency relative to the lower Nyquist frequency
+  private static final double CUTOFF = 0.95;
+
+  // Right half of the windowed sinc function
+  private static final double[] TABLE = createTable();
+
+  //
+  private final int srcSampleRate;
+
+  //
+  private final int srcSampleSize;
+
+  //
+  private final int srcNumChannels;
+
+  //
+  private final int sampleRate;
+
+  //
+  private final int sampleSize;
+
+  //
+  private final int numChannels;
+
+  // Whether the samples are converted to 32-bit float
+  private final boolean floatFormat;
+
+  public ClipConverter(
+      int srcSampleRate,
+      int srcSampleSize,
+      int srcNumChannels,
+      int sampleRate,
+      int sampleSize,
+      int numChannels,
+      boolean floatFormat) {
+    this.srcSampleRate = srcSampleRate;
+    this.srcSampleSize = srcSampleSize;
+    this.srcNumChannels = srcNumChannels;
+    this.sampleRate = sampleRate;
+    this.sampleSize = sampleSize;
+    this.numChannels = numChannels;
+    this.floatFormat = floatFormat;
+  }
+
+  // Return whether the clip is already in the format of the stream.
+  public boolean isIdentity() {
+    return srcSampleRate == sampleRate
+        && srcSampleSize == sampleSize
+        && srcNumChannels == numChannels
+        && !floatFormat;
+  }
+
+  // Convert the given clip of integer samples in little endian. Return a new
+  // direct buffer in the native byte order.
+  public ByteBuffer convert(ByteBuffer clip) {
+    ByteBuffer src = clip.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+    src.rewind();
+    double[][] x = readChannels(src);
+    double[][] y = new double[numChannels][];
+    for (int c = 0; c < numChannels; c++) {
+      y[c] = srcSampleRate == sampleRate ? x[c] : resample(x[c]);
+    }
+    return write(y);
+  }
+
+  // Read the samples in [-1, 1) and map them to the channels of the stream.
+  private double[][] readChannels(ByteBuffer src) {
+    int numFrames = src.remaining() / (srcSampleSize * srcNumChannels);
+    double[][] channels = new double[srcNumChannels][numFrames];
+    double scale = 1.0 / (1L << (8 * srcSampleSize - 1));
+    for (int t = 0; t < numFrames; t++) {
+      for (int c = 0; c < srcNumChannels; c++) {
+        channels[c][t] = scale * getSample(src, srcSampleSize);
+      }
+    }
+
+    double[][] x = new double[numChannels][];
+    if (numChannels == 1 && srcNumChannels > 1) {
+      // Mix down to mono.
+      x[0] = new double[numFrames];
+      for (int t = 0; t < numFrames; t++) {
+        for (int c = 0; c < srcNumChannels; c++) {
+          x[0][t] += channels[c][t] / srcNumChannels;
+        }
+      }
+    } else {
+      for (int c = 0; c < numChannels; c++) {
+        x[c] = channels[c % srcNumChannels];
+      }
+    }
+    return x;
+  }
+
+  // Convert the sample rate of one channel. The n-th output sample is the
+  // band-limited input interpolated at time n * srcSampleRate / sampleRate.
+  private double[] resample(double[] x) {
+    int numFrames = (int) ((long) x.length * sampleRate / srcSampleRate);
+    double[] y = new double[numFrames];
+    double cutoff = CUTOFF * Math.min(1.0, (double) sampleRate / srcSampleRate);
+    double halfWidth = NUM_ZERO_CROSSINGS / cutoff;
+    for (int n = 0; n < numFrames; n++) {
+      double time = (double) ((long) n * srcSampleRate) / sampleRate;
+      int begin = Math.max(0, (int) Math.ceil(time - halfWidth));
+      int end = Math.min(x.length - 1, (int) Math.floor(time + halfWidth));
+      double sum = 0.0;
+      for (int k = begin; k <= end; k++) {
+        sum += x[k] * getFilter(cutoff * (time - k));
+      }
+      y[n] = cutoff * sum;
+    }
+    return y;
+  }
+
+  private ByteBuffer write(double[][] y) {
+    int numFrames = y[0].length;
+    ByteBuffer buffer =
+        ByteBuffer.allocateDirect(numFrames * numChannels * sampleSize)
+            .order(ByteOrder.nativeOrder());
+    long max = 1L << (8 * sampleSize - 1);
+    for (int t = 0; t < numFrames; t++) {
+      for (int c = 0; c < numChannels; c++) {
+        if (floatFormat) {
+          buffer.putFloat((float) y[c][t]);
+          continue;
+        }
+        long value = Math.max(-max, Math.min(max - 1, Math.round(max * y[c][t])));
+        for (int i = 0; i < sampleSize; i++) {
+          int shift = 8 * (buffer.order() == ByteOrder.LITTLE_ENDIAN ? i : sampleSize - 1 - i);
+          buffer.put((byte) (value >> shift));
+        }
+      }
+    }
+    buffer.rewind();
+    return buffer;
+  }
+
+  // Read a signed sample of the given size in little endian.
+  private static long getSample(ByteBuffer src, int size) {
+    long value = 0;
+    for (int i = 0; i < size; i++) {
+      value |= (src.get() & 0xffL) << (8 * i);
+    }
+    int shift = 64 - 8 * size;
+    return (value << shift) >> shift;
+  }
+
+  // Windowed sinc function linearly interpolated from the table.
+  private static double getFilter(double time) {
+    double position = Math.abs(time) * TABLE_RESOLUTION;
+    int i = (int) position;
+    if (i >= TABLE.length - 1) {
+      return 0.0;
+    }
+    return TABLE[i] + (position - i) * (TABLE[i + 1] - TABLE[i]);
+  }
+
+  private static double[] createTable() {
+    double[] table = new double[NUM_ZERO_CROSSINGS * TABLE_RESOLUTION + 1];
+    double i0Beta = besselI0(KAISER_BETA);
+    for (int i = 0; i < table.length; i++) {
+      double time = (double) i / TABLE_RESOLUTION;
+      double sinc = i == 0 ? 1.0 : Math.sin(Math.PI * time) / (Math.PI * time);
+      double ratio = time / NUM_ZERO_CROSSINGS;
+      double window = besselI0(KAISER_BETA * Math.sqrt(Math.max(0.0, 1.0 - ratio * ratio)));
+      table[i] = sinc * window / i0Beta;
+    }
+    return table;
+  }
+
+  // Modified Bessel function of the first kind of order 0.
+  private static double besselI0(double x) {
+    double sum = 1.0;
+    double term = 1.0;
+    for (int k = 1; k < 50 && term > 1e-12 * sum; k++) {
+      term *= (x / (2.0 * k)) * (x / (2.0 * k));
+      sum += term;
+    }
+    return sum;
+  }
+}
@@ -0,0 +1,75 @@
+// ------------------------------------------------------------------------ //
+// Copyright 2016 Nagoya Institute of Technology                            //
+//                                                                          //
+// Licensed under the Apache License, Version 2.0 (the "License");          //
+// you may not use this file except in compliance with the License.         //
+// You may obtain a copy of the License at                                  //
+//                                                                          //
+//     http://www.apache.org/licenses/LICENSE-2.0                           //
+//                                                                          //
+// Unless required by applicable law or agreed to in writing, software      //
+// distributed under the License is distributed on an "AS IS" BASIS,        //
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
+// See the License for the specific language governing permissions and      //
+// limitations under the License.                                           //
+// ------------------------------------------------------------------------ //
+
+
+package jp.ac.nitech.sp.voist;
+
+import java.io.File;
+
+// Sound device without any hardware, so that the recording flow can be run
+// on a machine without a sound card. The native library replays a raw file
+// in the recording format as the input, or silence if no file is given,
+// instead of opening the devices, and discards the output. Capture, level
+// metering, measuring and writing the takes are those of CallPortAudio.
+// Every take replays the file once from the beginning. Before and after it,
+// the input loops the top silence of the file, so the pre-roll of every take
+// is the same. Takes and playback run at the given multiple of real time, or
+// as fast as possible if the speed is not positive.
+public class FileReplayBackend extends CallPortAudio {
+  // Raw file replayed as the input
+  private final File inputFile;
+
+  // Multiple of real time
+  private final double speed;
+
+  public FileReplayBackend(File inputFile, double speed) {
+    this.inputFile = inputFile;
+    this.speed = speed;
+  }
+
+  @Override
+  public void createInstance() {
+    super.createInstance();
+    setReplay(inputFile == null ? null : inputFile.getPath(), speed);
+  }
+
+  // The replayed file is the only device.
+  @Override
+  public AudioDevice[] getDevices() {
+    int numChannels = getNumChannels();
+    String name = inputFile == null ? "Silence" : inputFile.getName();
+    return new AudioDevice[] {
+      new AudioDevice(
+          "File replay",
+          name,
+          numChannels,
+          numChannels,
+          0.0,
+          0.0,
+          0.0,
+          0.0,
+          getSampleRate(),
+          true,
+          true)
+    };
+  }
+
+  // The output is discarded, so the click is never found in the input.
+  @Override
+  public double measureLatency() {
+    return -1.0;
+  }
+}
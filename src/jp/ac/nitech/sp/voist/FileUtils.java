@@ -1,115 +1,163 @@
-// ------------------------------------------------------------------------ //
-// Copyright 2016 Nagoya Institute of Technology                            //
-//                                                                          //
-// Licensed under the Apache License, Version 2.0 (the "License");          //
-// you may not use this file except in compliance with the License.         //
-// You may obtain a copy of the License at                                  //
-//                                                                          //
-//     http://www.apache.org/licenses/LICENSE-2.0                           //
-//                                                                          //
-// Unless required by applicable law or agreed to in writing, software      //
-// distributed under the License is distributed on an "AS IS" BASIS,        //
-// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
-// See the License for the specific language governing permissions and      //
-// limitations under the License.                                           //
-// ------------------------------------------------------------------------ //
-
-package jp.ac.nitech.sp.voist;
-
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.nio.channels.FileChannel;
-
-public class FileUtils {
-  private FileUtils() {}
-
-  public static String createPath(String... strs) {
-    StringBuffer sb = new StringBuffer();
-    for (String str : strs) {
-      if (str != null && !str.equals("")) {
-        if (sb.length() != 0) {
-          sb.append(File.separator);
-        }
-        sb.append(str);
-      }
-    }
-    return sb.toString();
-  }
-
-  public static boolean canWrite(File file) {
-    if (file == null) {
-      return false;
-    }
-    if (!file.exists()) {
-      try {
-        file.createNewFile();
-      } catch (IOException e) {
-        e.printStackTrace();
-      }
-    }
-    return file.isFile() && file.canWrite();
-  }
-
-  public static boolean canRead(File file) {
-    return file != null && file.exists() && file.isFile() && file.canRead();
-  }
-
-  public static boolean copy(File srcFile, File destFile) {
-    if (srcFile == null || destFile == null) {
-      return false;
-    }
-
-    FileInputStream fis = null;
-    FileOutputStream fos = null;
-    FileChannel srcChannel = null;
-    FileChannel destChannel = null;
-
-    try {
-      fis = new FileInputStream(srcFile);
-      fos = new FileOutputStream(destFile);
-      srcChannel = fis.getChannel();
-      destChannel = fos.getChannel();
-      srcChannel.transferTo(0, srcChannel.size(), destChannel);
-    } catch (IOException e) {
-      e.printStackTrace();
-      return false;
-    } finally {
-      if (destChannel != null) {
-        try {
-          destChannel.close();
-        } catch (IOException e) {
-          e.printStackTrace();
-        }
-      }
-      if (srcChannel != null) {
-        try {
-          srcChannel.close();
-        } catch (IOException e) {
-          e.printStackTrace();
-        }
-      }
-      if (fos != null) {
-        try {
-          fos.close();
-        } catch (IOException e) {
-          e.printStackTrace();
-        }
-      }
-      if (fis != null) {
-        try {
-          fis.close();
-        } catch (IOException e) {
-          e.printStackTrace();
-        }
-      }
-    }
-
-    return true;
-  }
-
-  public static boolean delete(File file) {
-    return file != null && file.exists() && file.delete();
-  }
-}
+// ------------------------------------------------------------------------ //
+// Copyright 2016 Nagoya Institute of Technology                            //
+//                                                                          //
+// Licensed under the Apache License, Version 2.0 (the "License");          //
+// you may not use this file except in compliance with the License.         //
+// You may obtain a copy of the License at                                  //
+//                                                                          //
+//     http://www.apache.org/licenses/LICENSE-2.0                           //
+//                                                                          //
+// Unless required by applicable law or agreed to in writing, software      //
+// distributed under the License is distributed on an "AS IS" BASIS,        //
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
+// See the License for the specific language governing permissions and      //
+// limitations under the License.                                           //
+// ------------------------------------------------------------------------ //
+
+package jp.ac.nitech.sp.voist;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public class FileUtils {
+  private FileUtils() {}
+
+  public static String createPath(String... strs) {
+    StringBuffer sb = new StringBuffer();
+    for (String str : strs) {
+      if (str != null && !str.equals("")) {
+        if (sb.length() != 0) {
+          sb.append(File.separator);
+        }
+        sb.append(str);
+      }
+    }
+    return sb.toString();
+  }
+
+  public static boolean canWrite(File file) {
+    if (file == null) {
+      return false;
+    }
+    if (!file.exists()) {
+      try {
+        file.createNewFile();
+      } catch (IOException e) {
+        e.printStackTrace();
+      }
+    }
+    return file.isFile() && file.canWrite();
+  }
+
+  public static boolean canRead(File file) {
+    return file != null && file.exists() && file.isFile() && file.canRead();
+  }
+
+  public static boolean copy(File srcFile, File destFile) {
+    if (srcFile == null || destFile == null) {
+      return false;
+    }
+
+    FileInputStream fis = null;
+    FileOutputStream fos = null;
+    FileChannel srcChannel = null;
+    FileChannel destChannel = null;
+
+    try {
+      fis = new FileInputStream(srcFile);
+      fos = new FileOutputStream(destFile);
+      srcChannel = fis.getChannel();
+      destChannel = fos.getChannel();
+      srcChannel.transferTo(0, srcChannel.size(), destChannel);
+    } catch (IOException e) {
+      e.printStackTrace();
+      return false;
+    } finally {
+      if (destChannel != null) {
+        try {
+          destChannel.close();
+        } catch (IOException e) {
+          e.printStackTrace();
+        }
+      }
+      if (srcChannel != null) {
+        try {
+          srcChannel.close();
+        } catch (IOException e) {
+          e.printStackTrace();
+        }
+      }
+      if (fos != null) {
+        try {
+          fos.close();
+        } catch (IOException e) {
+          e.printStackTrace();
+        }
+      }
+      if (fis != null) {
+        try {
+          fis.close();
+        } catch (IOException e) {
+          e.printStackTrace();
+        }
+      }
+    }
+
+    return true;
+  }
+
+  // Move the file to the destination, replacing it atomically, so that the
+  // destination is either the old file or the whole new one even if the
+  // process crashes. The file is renamed without being copied unless the
+  // destination is on another file system, where it is copied next to the
+  // destination first.
+  public static boolean move(File srcFile, File destFile) {
+    if (srcFile == null || destFile == null) {
+      return false;
+    }
+
+    Path src = srcFile.toPath();
+    Path dest = destFile.toPath();
+    try {
+      // Flush the data before the rename, so that a crash of the system does
+      // not leave the destination empty.
+      try (FileChannel channel = FileChannel.open(src, StandardOpenOption.WRITE)) {
+        channel.force(true);
+      }
+      try {
+        Files.move(src, dest, StandardCopyOption.ATOMIC_MOVE);
+      } catch (AtomicMoveNotSupportedException e) {
+        Path tmp =
+            Files.createTempFile(
+                dest.toAbsolutePath().getParent(), dest.getFileName().toString(), ".tmp");
+        try {
+          Files.copy(src, tmp, StandardCopyOption.REPLACE_EXISTING);
+          try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            channel.force(true);
+          }
+          Files.move(tmp, dest, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+          Files.deleteIfExists(tmp);
+        }
+        Files.delete(src);
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+      return false;
+    }
+
+    return true;
+  }
+
+  public static boolean delete(File file) {
+    return file != null && file.exists() && file.delete();
+  }
+}
@@ -0,0 +1,388 @@
+// ------------------------------------------------------------------------ //
+// Copyright 2016 Nagoya Institute of Technology                            //
+//                                                                          //
+// Licensed under the Apache License, Version 2.0 (the "License");          //
+// you may not use this file except in compliance with the License.         //
+// You may obtain a copy of the License at                                  //
+//                                                                          //
+//     http://www.apache.org/licenses/LICENSE-2.0                           //
+//                                                                          //
+// Unless required by applicable law or agreed to in writing, software      //
+// distributed under the License is distributed on an "AS IS" BASIS,        //
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
+// See the License for the specific language governing permissions and      //
+// limitations under the License.                                           //
+// ------------------------------------------------------------------------ //
+
+package jp.ac.nitech.sp.voist;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+// Minimum and maximum envelope of a raw file at several resolutions, so that
+// the waveform can be drawn at any zoom level without reading the samples.
+// The n-th level holds the minimum and maximum sample over all channels of
+// every BASE_BUCKET * FACTOR^n frames, in 16 bits. The envelopes of the
+// original and cut files of a take are collected by the native library while
+// the cut file is written and are stored next to them, see getFile(). An
+// envelope is only built from the samples if its sidecar is missing.
+// The files are read rather than mapped, for the reason given in ClipCache,
+// since the files of a take are moved and deleted while it is drawn.
+class PeakPyramid {
+  // Frames of a bucket of the finest level
+  private static final int BASE_BUCKET = 64;
+
+  // Ratio of the bucket sizes of adjacent levels
+  private static final int FACTOR = 4;
+
+  // Suffix added to the name of the raw file
+  private static final String SUFFIX = ".peaks";
+
+  // "VPK1" in little endian
+  private static final int MAGIC = 0x314B5056;
+
+  // Size [byte] of the raw file read at a time
+  private static final int CHUNK_SIZE = 1 << 24;
+
+  //
+  private final long numFrames;
+
+  // Minimum and maximum of each bucket of each level, interleaved
+  private final short[][] levels;
+
+  private PeakPyramid(long numFrames, short[][] levels) {
+    this.numFrames = numFrames;
+    this.levels = levels;
+  }
+
+  // Return the sidecar file of the given raw file.
+  public static File getFile(File rawFile) {
+    return new File(rawFile.getPath() + SUFFIX);
+  }
+
+  // Read the sidecar of the given raw file, or build the envelope and write
+  // the sidecar if it does not exist or is older than the raw file. Return
+  // null if the raw file cannot be read.
+  public static PeakPyramid load(
+      File rawFile, int sampleSize, int numChannels, boolean floatFormat) {
+    PeakPyramid pyramid = read(rawFile, sampleSize * numChannels);
+    if (pyramid == null) {
+      pyramid = build(rawFile, sampleSize, numChannels, floatFormat);
+      if (pyramid != null) {
+        pyramid.write(getFile(rawFile));
+      }
+    }
+    return pyramid;
+  }
+
+  // Build the envelope of the given raw file in a single pass, or return null
+  // if it cannot be read.
+  public static PeakPyramid build(
+      File rawFile, int sampleSize, int numChannels, boolean floatFormat) {
+    if (rawFile == null || sampleSize <= 0 || numChannels <= 0) {
+      return null;
+    }
+
+    int bytesPerFrame = sampleSize * numChannels;
+    try (FileChannel channel = FileChannel.open(rawFile.toPath(), StandardOpenOption.READ)) {
+      long numFrames = channel.size() / bytesPerFrame;
+      int numBuckets = (int) Math.max(1, (numFrames + BASE_BUCKET - 1) / BASE_BUCKET);
+      short[] base = new short[2 * numBuckets];
+      scan(channel, sampleSize, numChannels, floatFormat, 0, numFrames, 1, BASE_BUCKET, base);
+
+      // Each level has FACTOR times fewer buckets than the finer one, down to one.
+      int numLevels = 1;
+      for (int count = numBuckets; count > 1; count = (count + FACTOR - 1) / FACTOR) {
+        numLevels++;
+      }
+      short[][] levels = new short[numLevels][];
+      levels[0] = base;
+      for (int level = 1; level < numLevels; level++) {
+        short[] fine = levels[level - 1];
+        int count = (fine.length / 2 + FACTOR - 1) / FACTOR;
+        short[] coarse = new short[2 * count];
+        for (int b = 0; b < count; b++) {
+          int min = Short.MAX_VALUE;
+          int max = Short.MIN_VALUE;
+          for (int c = b * FACTOR; c < Math.min((b + 1) * FACTOR, fine.length / 2); c++) {
+            min = Math.min(min, fine[2 * c]);
+            max = Math.max(max, fine[2 * c + 1]);
+          }
+          coarse[2 * b] = (short) min;
+          coarse[2 * b + 1] = (short) max;
+        }
+        levels[level] = coarse;
+      }
+      return new PeakPyramid(numFrames, levels);
+    } catch (IOException e) {
+      e.printStackTrace();
+      return null;
+    }
+  }
+
+  // Read the sidecar of the given raw file, or return null if it does not
+  // exist or does not match the raw file.
+  public static PeakPyramid read(File rawFile, int bytesPerFrame) {
+    File file = getFile(rawFile);
+    if (!FileUtils.canRead(file)
+        || !FileUtils.canRead(rawFile)
+        || file.lastModified() < rawFile.lastModified()) {
+      return null;
+    }
+
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      ByteBuffer buffer = ByteBuffer.allocate((int) channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+      readFully(channel, buffer, 0);
+      if (buffer.remaining() < 24
+          || buffer.getInt() != MAGIC
+          || buffer.getInt() != BASE_BUCKET
+          || buffer.getInt() != FACTOR) {
+        return null;
+      }
+      long numFrames = buffer.getLong();
+      int numLevels = buffer.getInt();
+      if (numFrames * bytesPerFrame != rawFile.length() || numLevels <= 0) {
+        return null;
+      }
+      short[][] levels = new short[numLevels][];
+      for (int level = 0; level < numLevels; level++) {
+        int count = buffer.getInt();
+        levels[level] = new short[2 * count];
+        buffer.asShortBuffer().get(levels[level]);
+        buffer.position(buffer.position() + 4 * count);
+      }
+      return new PeakPyramid(numFrames, levels);
+    } catch (IOException | RuntimeException e) {
+      // A truncated sidecar is rebuilt.
+      e.printStackTrace();
+      return null;
+    }
+  }
+
+  public boolean write(File file) {
+    int size = 24;
+    for (short[] level : levels) {
+      size += 4 + 2 * level.length;
+    }
+    ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(MAGIC);
+    buffer.putInt(BASE_BUCKET);
+    buffer.putInt(FACTOR);
+    buffer.putLong(numFrames);
+    buffer.putInt(levels.length);
+    for (short[] level : levels) {
+      buffer.putInt(level.length / 2);
+      buffer.asShortBuffer().put(level);
+      buffer.position(buffer.position() + 2 * level.length);
+    }
+    buffer.flip();
+
+    try (FileChannel channel =
+        FileChannel.open(
+            file.toPath(),
+            StandardOpenOption.WRITE,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      while (buffer.hasRemaining()) {
+        channel.write(buffer);
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+      return false;
+    }
+    return true;
+  }
+
+  public long getNumFrames() {
+    return numFrames;
+  }
+
+  // Set the minimum and maximum of the frames [begin, end) divided into
+  // mins.length columns. The coarsest level with at least FACTOR buckets in a
+  // column is used, so that a peak spreads over at most a fraction of the
+  // next column. Columns narrower than a bucket of the finest level show the
+  // whole bucket.
+  public void getEnvelope(long begin, long end, short[] mins, short[] maxs) {
+    int numColumns = mins.length;
+    begin = Math.min(Math.max(0, begin), numFrames);
+    end = Math.min(Math.max(begin, end), numFrames);
+    if (numColumns == 0 || begin == end) {
+      Arrays.fill(mins, (short) 0);
+      Arrays.fill(maxs, (short) 0);
+      return;
+    }
+
+    double framesPerColumn = (double) (end - begin) / numColumns;
+    int level = 0;
+    long bucket = BASE_BUCKET;
+    while (level + 1 < levels.length && bucket * FACTOR * FACTOR <= framesPerColumn) {
+      level++;
+      bucket *= FACTOR;
+    }
+
+    short[] peaks = levels[level];
+    int numBuckets = peaks.length / 2;
+    for (int x = 0; x < numColumns; x++) {
+      long first = begin + (long) (x * framesPerColumn);
+      long last = begin + (long) ((x + 1) * framesPerColumn);
+      int b = (int) Math.min(first / bucket, numBuckets - 1);
+      int e = (int) Math.min(Math.max(b + 1, (last - 1) / bucket + 1), numBuckets);
+      int min = Short.MAX_VALUE;
+      int max = Short.MIN_VALUE;
+      for (; b < e; b++) {
+        min = Math.min(min, peaks[2 * b]);
+        max = Math.max(max, peaks[2 * b + 1]);
+      }
+      mins[x] = (short) min;
+      maxs[x] = (short) max;
+    }
+  }
+
+  // Set the minimum and maximum of the frames [begin, end) of the raw file
+  // divided into mins.length columns from the samples themselves, e.g. for
+  // columns too narrow for getEnvelope(). Only the range is read, in chunks
+  // of a limited size. Return false if the file cannot be read.
+  public static boolean readEnvelope(
+      File rawFile,
+      int sampleSize,
+      int numChannels,
+      boolean floatFormat,
+      long begin,
+      long end,
+      short[] mins,
+      short[] maxs) {
+    if (rawFile == null || sampleSize <= 0 || numChannels <= 0) {
+      return false;
+    }
+
+    int numColumns = mins.length;
+    short[] peaks = new short[2 * numColumns];
+    try (FileChannel channel = FileChannel.open(rawFile.toPath(), StandardOpenOption.READ)) {
+      long numFrames = channel.size() / (sampleSize * numChannels);
+      begin = Math.min(Math.max(0, begin), numFrames);
+      end = Math.min(Math.max(begin, end), numFrames);
+      if (begin < end && numColumns > 0) {
+        scan(
+            channel,
+            sampleSize,
+            numChannels,
+            floatFormat,
+            begin,
+            end,
+            numColumns,
+            end - begin,
+            peaks);
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+      return false;
+    }
+
+    // A column between two frames shows the frame before it.
+    short min = 0;
+    short max = 0;
+    for (int x = 0; x < numColumns; x++) {
+      if (peaks[2 * x] <= peaks[2 * x + 1]) {
+        min = peaks[2 * x];
+        max = peaks[2 * x + 1];
+      }
+      mins[x] = min;
+      maxs[x] = max;
+    }
+    return true;
+  }
+
+  // Whether getEnvelope() resolves columns of the given number of frames,
+  // below which readEnvelope() is exact.
+  public static boolean canResolve(double framesPerColumn) {
+    return framesPerColumn >= BASE_BUCKET * FACTOR;
+  }
+
+  // Put the minimum and maximum of the frames [begin, end) of the file to
+  // the interleaved bins, where the frame f goes to the bin
+  // (f - begin) * binNum / binDen. Whole frames are read at a time into one
+  // buffer, so that no frame straddles two chunks. The frames after the end
+  // of the file are skipped.
+  private static void scan(
+      FileChannel channel,
+      int sampleSize,
+      int numChannels,
+      boolean floatFormat,
+      long begin,
+      long end,
+      long binNum,
+      long binDen,
+      short[] peaks)
+      throws IOException {
+    for (int b = 0; b < peaks.length; b += 2) {
+      peaks[b] = Short.MAX_VALUE;
+      peaks[b + 1] = Short.MIN_VALUE;
+    }
+
+    int bytesPerFrame = sampleSize * numChannels;
+    long chunkFrames = Math.max(1, Math.min(CHUNK_SIZE / bytesPerFrame, end - begin));
+    ByteBuffer buffer =
+        ByteBuffer.allocateDirect((int) chunkFrames * bytesPerFrame)
+            .order(ByteOrder.LITTLE_ENDIAN);
+    for (long first = begin; first < end; first += chunkFrames) {
+      buffer.clear();
+      buffer.limit((int) Math.min(chunkFrames, end - first) * bytesPerFrame);
+      readFully(channel, buffer, first * bytesPerFrame);
+      int n = buffer.remaining() / bytesPerFrame;
+      for (int t = 0; t < n; t++) {
+        int b = 2 * (int) ((first + t - begin) * binNum / binDen);
+        int min = peaks[b];
+        int max = peaks[b + 1];
+        for (int i = 0; i < numChannels; i++) {
+          int value = getSample(buffer, sampleSize, floatFormat);
+          min = Math.min(min, value);
+          max = Math.max(max, value);
+        }
+        peaks[b] = (short) min;
+        peaks[b + 1] = (short) max;
+      }
+    }
+  }
+
+  // Read the cleared buffer from the given position of the file until it is
+  // full or the file ends, and flip it.
+  private static void readFully(FileChannel channel, ByteBuffer buffer, long position)
+      throws IOException {
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        break;
+      }
+    }
+    buffer.flip();
+  }
+
+  // Read the next sample of the buffer in 16 bits without allocation.
+  private static int getSample(ByteBuffer buffer, int sampleSize, boolean floatFormat) {
+    if (floatFormat) {
+      float value = buffer.getFloat();
+      return (int) Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, 32768.0f * value));
+    }
+    switch (sampleSize) {
+      case 1:
+        return buffer.get() << 8;
+      case 2:
+        return buffer.getShort();
+      case 3:
+        {
+          int low = buffer.getShort() & 0xFFFF;
+          return buffer.get() << 8 | low >> 8;
+        }
+      default:
+        {
+          int value = buffer.getInt() >> 16;
+          buffer.position(buffer.position() + sampleSize - 4);
+          return value;
+        }
+    }
+  }
+}
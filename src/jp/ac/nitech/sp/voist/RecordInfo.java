@@ -1,289 +1,530 @@
-// ------------------------------------------------------------------------ //
-// Copyright 2016 Nagoya Institute of Technology                            //
-//                                                                          //
-// Licensed under the Apache License, Version 2.0 (the "License");          //
-// you may not use this file except in compliance with the License.         //
-// You may obtain a copy of the License at                                  //
-//                                                                          //
-//     http://www.apache.org/licenses/LICENSE-2.0                           //
-//                                                                          //
-// Unless required by applicable law or agreed to in writing, software      //
-// distributed under the License is distributed on an "AS IS" BASIS,        //
-// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
-// See the License for the specific language governing permissions and      //
-// limitations under the License.                                           //
-// ------------------------------------------------------------------------ //
-
-package jp.ac.nitech.sp.voist;
-
-import java.io.BufferedReader;
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileReader;
-import java.io.FileWriter;
-import java.io.IOException;
-import java.io.PrintWriter;
-import java.util.Date;
-import java.util.Objects;
-
-public class RecordInfo {
-  public static enum RecordStatus {
-    NOT_YET,
-    SUCCESS,
-    FAILURE,
-    FAILURE_MAX_AMPLITUDE,
-    FAILURE_MIN_AMPLITUDE,
-    FAILURE_TOP_SILENCE,
-    FAILURE_END_SILENCE,
-  }
-
-  //
-  private File recOrgFile;
-
-  //
-  private File recCutFile;
-
-  //
-  private File recWavFile;
-
-  //
-  private File logFile;
-
-  //
-  private boolean isTmp;
-
-  //
-  private boolean isEnv;
-
-  //
-  private double maxAmplitude;
-
-  //
-  private double topSilence;
-
-  //
-  private double endSilence;
-
-  //
-  private double power;
-
-  //
-  private int numRetakes;
-
-  //
-  private RecordStatus status;
-
-  public RecordInfo(
-      String recOrgFileName, String recCutFileName, String recWavFileName, String logFileName) {
-    Objects.requireNonNull(recOrgFileName);
-    Objects.requireNonNull(recCutFileName);
-    recOrgFile = new File(recOrgFileName);
-    recCutFile = new File(recCutFileName);
-    if (recWavFileName != null) {
-      recWavFile = new File(recWavFileName);
-    }
-    if (logFileName != null) {
-      logFile = new File(logFileName);
-    }
-    clear();
-  }
-
-  public void clear() {
-    isTmp = false;
-    isEnv = false;
-    maxAmplitude = 0.0;
-    topSilence = 0.0;
-    endSilence = 0.0;
-    power = 0.0;
-    numRetakes = -1;
-    status = isRecorded() ? RecordStatus.SUCCESS : RecordStatus.NOT_YET;
-  }
-
-  public boolean isRecorded() {
-    return (recOrgFile.exists() && recOrgFile.isFile())
-        || (recCutFile.exists() && recCutFile.isFile());
-  }
-
-  public void toTmp(boolean b) {
-    isTmp = b;
-  }
-
-  public void toEnv(boolean b) {
-    isEnv = b;
-  }
-
-  public boolean isTmp() {
-    return isTmp;
-  }
-
-  public boolean isEnv() {
-    return isEnv;
-  }
-
-  public void setVoiceOrgFile(String fileName) {
-    recOrgFile = new File(fileName);
-  }
-
-  public void setVoiceCutFile(String fileName) {
-    recCutFile = new File(fileName);
-  }
-
-  public void setVoiceWavFile(String fileName) {
-    recWavFile = new File(fileName);
-  }
-
-  public void setLogFile(String fileName) {
-    logFile = new File(fileName);
-  }
-
-  public void setMaxAmplitude(double amplitude) {
-    maxAmplitude = amplitude;
-  }
-
-  public void setTopSilence(double silence) {
-    topSilence = silence;
-  }
-
-  public void setEndSilence(double silence) {
-    endSilence = silence;
-  }
-
-  public void setPower(double power) {
-    this.power = power;
-  }
-
-  public void incrementNumRetakes() {
-    this.numRetakes++;
-  }
-
-  public void setStatus(RecordStatus status) {
-    this.status = status;
-  }
-
-  public File getVoiceOrgFile() {
-    return recOrgFile;
-  }
-
-  public File getVoiceCutFile() {
-    return recCutFile;
-  }
-
-  public File getVoiceWavFile() {
-    return recWavFile;
-  }
-
-  public File getLogFile() {
-    return logFile;
-  }
-
-  public double getMaxAmplitude() {
-    return maxAmplitude;
-  }
-
-  public double getTopSilence() {
-    return topSilence;
-  }
-
-  public double getEndSilence() {
-    return endSilence;
-  }
-
-  public double getPower() {
-    return power;
-  }
-
-  public int getNumRetakes() {
-    return numRetakes;
-  }
-
-  public RecordStatus getStatus() {
-    return status;
-  }
-
-  public long getFileLength() {
-    return isRecorded() ? recCutFile.length() : 0L;
-  }
-
-  public long getFileSize() {
-    return Math.round((double) getFileLength() / 1024);
-  }
-
-  public double getPlaybackTime(int sampleRate, int sampleSize, int numChannels) {
-    return (double) getFileLength() / (sampleRate * sampleSize * numChannels);
-  }
-
-  public String getFormatedTimeStamp() {
-    if (isRecorded()) {
-      long stamp = logFile.lastModified();
-      Date date = new Date(stamp);
-      return date.toString();
-    }
-    return "----";
-  }
-
-  public void dump() {
-    if (!FileUtils.canWrite(logFile)) {
-      VoistUtils.warn("Cannot dump " + logFile.getName(), "dump");
-      return;
-    }
-
-    try {
-      PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(logFile)));
-      pw.println("# " + logFile.getName());
-      pw.println("# " + getFormatedTimeStamp());
-      pw.println("max amplitude=" + String.format("%.2f", maxAmplitude));
-      pw.println("top silence=" + String.format("%.2f", topSilence));
-      pw.println("end silence=" + String.format("%.2f", endSilence));
-      pw.println("num retakes=" + String.format("%d", numRetakes));
-      pw.close();
-    } catch (IOException e) {
-      e.printStackTrace();
-    }
-  }
-
-  public void load() {
-    if (!FileUtils.canRead(logFile)) {
-      return;
-    }
-
-    try {
-      FileReader fr = new FileReader(logFile);
-      BufferedReader br = new BufferedReader(fr);
-
-      int count = 0;
-      String line;
-      while ((line = br.readLine()) != null) {
-        if (line.startsWith("#")) { // This is a comment line.
-          continue;
-        } else if (line.equals("")) { // Skip empty lines.
-          continue;
-        } else {
-          String[] ary = line.split("=");
-          switch (count) {
-            case 0:
-              maxAmplitude = Double.parseDouble(ary[1]);
-              break;
-            case 1:
-              topSilence = Double.parseDouble(ary[1]);
-              break;
-            case 2:
-              endSilence = Double.parseDouble(ary[1]);
-              break;
-            case 3:
-              numRetakes = Integer.parseInt(ary[1]);
-              break;
-            default:
-              VoistUtils.warn("Unexpected log file format: " + logFile.getName(), "load");
-              break;
-          }
-          count++;
-        }
-      }
-
-      br.close();
-      fr.close();
-    } catch (IOException e) {
-      e.printStackTrace();
-    }
-  }
-}
+// ------------------------------------------------------------------------ //
+// Copyright 2016 Nagoya Institute of Technology                            //
+//                                                                          //
+// Licensed under the Apache License, Version 2.0 (the "License");          //
+// you may not use this file except in compliance with the License.         //
+// You may obtain a copy of the License at                                  //
+//                                                                          //
+//     http://www.apache.org/licenses/LICENSE-2.0                           //
+//                                                                          //
+// Unless required by applicable law or agreed to in writing, software      //
+// distributed under the License is distributed on an "AS IS" BASIS,        //
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
+// See the License for the specific language governing permissions and      //
+// limitations under the License.                                           //
+// ------------------------------------------------------------------------ //
+
+package jp.ac.nitech.sp.voist;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Objects;
+
+public class RecordInfo {
+  public static enum RecordStatus {
+    NOT_YET,
+    SUCCESS,
+    FAILURE,
+    FAILURE_MAX_AMPLITUDE,
+    FAILURE_MIN_AMPLITUDE,
+    FAILURE_TOP_SILENCE,
+    FAILURE_END_SILENCE,
+  }
+
+  //
+  private File recOrgFile;
+
+  //
+  private File recCutFile;
+
+  //
+  private File recWavFile;
+
+  //
+  private File logFile;
+
+  //
+  private boolean isTmp;
+
+  //
+  private boolean isEnv;
+
+  //
+  private double maxAmplitude;
+
+  // Time [msec] from the end of the beep to the start of the take
+  private double recordingOffset;
+
+  //
+  private double topSilence;
+
+  //
+  private double endSilence;
+
+  //
+  private double power;
+
+  // Number of clips, i.e. runs of clipped samples of a channel
+  private int numClips;
+
+  //
+  private long numClippedSamples;
+
+  // Time [sec] of the first clip from the start of the take, or -1
+  private double clipPosition;
+
+  // Frames [cutBegin, cutEnd) of the original take written to the cut file,
+  // or -1 if the take is not cut
+  private long cutBegin;
+
+  private long cutEnd;
+
+  // Bytes of a sample of the take, or 0 if the take is logged by an older
+  // version which does not know its format
+  private int sampleSize;
+
+  // Samples of the take are 32-bit float
+  private boolean floatFormat;
+
+  // Maximum amplitude, top silence, end silence and power of each channel
+  private double[] channelMaxAmplitude;
+
+  private double[] channelTopSilence;
+
+  private double[] channelEndSilence;
+
+  private double[] channelPower;
+
+  //
+  private int numRetakes;
+
+  // Status, which is set on the EDT and read by the thread updating the GUI
+  private volatile RecordStatus status;
+
+  public RecordInfo(
+      String recOrgFileName, String recCutFileName, String recWavFileName, String logFileName) {
+    Objects.requireNonNull(recOrgFileName);
+    Objects.requireNonNull(recCutFileName);
+    recOrgFile = new File(recOrgFileName);
+    recCutFile = new File(recCutFileName);
+    if (recWavFileName != null) {
+      recWavFile = new File(recWavFileName);
+    }
+    if (logFileName != null) {
+      logFile = new File(logFileName);
+    }
+    clear();
+  }
+
+  public void clear() {
+    isTmp = false;
+    isEnv = false;
+    maxAmplitude = 0.0;
+    recordingOffset = 0.0;
+    topSilence = 0.0;
+    endSilence = 0.0;
+    power = 0.0;
+    numClips = 0;
+    numClippedSamples = 0;
+    clipPosition = -1.0;
+    cutBegin = -1;
+    cutEnd = -1;
+    sampleSize = 0;
+    floatFormat = false;
+    setNumChannels(0);
+    numRetakes = -1;
+    status = isRecorded() ? RecordStatus.SUCCESS : RecordStatus.NOT_YET;
+  }
+
+  public boolean isRecorded() {
+    return (recOrgFile.exists() && recOrgFile.isFile())
+        || (recCutFile.exists() && recCutFile.isFile());
+  }
+
+  public void toTmp(boolean b) {
+    isTmp = b;
+  }
+
+  public void toEnv(boolean b) {
+    isEnv = b;
+  }
+
+  public boolean isTmp() {
+    return isTmp;
+  }
+
+  public boolean isEnv() {
+    return isEnv;
+  }
+
+  public void setVoiceOrgFile(String fileName) {
+    recOrgFile = new File(fileName);
+  }
+
+  public void setVoiceCutFile(String fileName) {
+    recCutFile = new File(fileName);
+  }
+
+  public void setVoiceWavFile(String fileName) {
+    recWavFile = new File(fileName);
+  }
+
+  public void setLogFile(String fileName) {
+    logFile = new File(fileName);
+  }
+
+  public void setMaxAmplitude(double amplitude) {
+    maxAmplitude = amplitude;
+  }
+
+  public void setRecordingOffset(double offset) {
+    recordingOffset = offset;
+  }
+
+  public void setTopSilence(double silence) {
+    topSilence = silence;
+  }
+
+  public void setEndSilence(double silence) {
+    endSilence = silence;
+  }
+
+  public void setPower(double power) {
+    this.power = power;
+  }
+
+  public void setNumClips(int num) {
+    numClips = num;
+  }
+
+  public void setNumClippedSamples(long num) {
+    numClippedSamples = num;
+  }
+
+  public void setClipPosition(double position) {
+    clipPosition = position;
+  }
+
+  public void setCutBegin(long frame) {
+    cutBegin = frame;
+  }
+
+  public void setCutEnd(long frame) {
+    cutEnd = frame;
+  }
+
+  public void setSampleSize(int size) {
+    sampleSize = size;
+  }
+
+  public void setFloatFormat(boolean floatFormat) {
+    this.floatFormat = floatFormat;
+  }
+
+  // Reset the statistics of the channels. They are kept only for a take of
+  // more than one channel.
+  public void setNumChannels(int num) {
+    channelMaxAmplitude = new double[num];
+    channelTopSilence = new double[num];
+    channelEndSilence = new double[num];
+    channelPower = new double[num];
+  }
+
+  public void setChannelMaxAmplitude(int channel, double amplitude) {
+    channelMaxAmplitude[channel] = amplitude;
+  }
+
+  public void setChannelTopSilence(int channel, double silence) {
+    channelTopSilence[channel] = silence;
+  }
+
+  public void setChannelEndSilence(int channel, double silence) {
+    channelEndSilence[channel] = silence;
+  }
+
+  public void setChannelPower(int channel, double power) {
+    channelPower[channel] = power;
+  }
+
+  public void incrementNumRetakes() {
+    this.numRetakes++;
+  }
+
+  public void setNumRetakes(int num) {
+    numRetakes = num;
+  }
+
+  public void setStatus(RecordStatus status) {
+    this.status = status;
+  }
+
+  public File getVoiceOrgFile() {
+    return recOrgFile;
+  }
+
+  public File getVoiceCutFile() {
+    return recCutFile;
+  }
+
+  public File getVoiceWavFile() {
+    return recWavFile;
+  }
+
+  public File getLogFile() {
+    return logFile;
+  }
+
+  public double getMaxAmplitude() {
+    return maxAmplitude;
+  }
+
+  public double getRecordingOffset() {
+    return recordingOffset;
+  }
+
+  public double getTopSilence() {
+    return topSilence;
+  }
+
+  public double getEndSilence() {
+    return endSilence;
+  }
+
+  public double getPower() {
+    return power;
+  }
+
+  public int getNumClips() {
+    return numClips;
+  }
+
+  public long getNumClippedSamples() {
+    return numClippedSamples;
+  }
+
+  public double getClipPosition() {
+    return clipPosition;
+  }
+
+  public long getCutBegin() {
+    return cutBegin;
+  }
+
+  public long getCutEnd() {
+    return cutEnd;
+  }
+
+  public int getSampleSize() {
+    return sampleSize;
+  }
+
+  public boolean isFloatFormat() {
+    return floatFormat;
+  }
+
+  public int getNumChannels() {
+    return channelMaxAmplitude.length;
+  }
+
+  public double getChannelMaxAmplitude(int channel) {
+    return channelMaxAmplitude[channel];
+  }
+
+  public double getChannelTopSilence(int channel) {
+    return channelTopSilence[channel];
+  }
+
+  public double getChannelEndSilence(int channel) {
+    return channelEndSilence[channel];
+  }
+
+  public double getChannelPower(int channel) {
+    return channelPower[channel];
+  }
+
+  public int getNumRetakes() {
+    return numRetakes;
+  }
+
+  public RecordStatus getStatus() {
+    return status;
+  }
+
+  public long getFileLength() {
+    return isRecorded() ? recCutFile.length() : 0L;
+  }
+
+  public long getFileSize() {
+    return Math.round((double) getFileLength() / 1024);
+  }
+
+  public double getPlaybackTime(int sampleRate, int sampleSize, int numChannels) {
+    return (double) getFileLength() / (sampleRate * sampleSize * numChannels);
+  }
+
+  public String getFormatedTimeStamp() {
+    if (isRecorded()) {
+      long stamp = logFile.lastModified();
+      Date date = new Date(stamp);
+      return date.toString();
+    }
+    return "----";
+  }
+
+  public void dump() {
+    if (!FileUtils.canWrite(logFile)) {
+      VoistUtils.warn("Cannot dump " + logFile.getName(), "dump");
+      return;
+    }
+
+    try {
+      PrintWriter pw = new PrintWriter(new BufferedWriter(new FileWriter(logFile)));
+      pw.println("# " + logFile.getName());
+      pw.println("# " + getFormatedTimeStamp());
+      pw.println("max amplitude=" + String.format("%.2f", maxAmplitude));
+      pw.println("top silence=" + String.format("%.2f", topSilence));
+      pw.println("end silence=" + String.format("%.2f", endSilence));
+      pw.println("num retakes=" + String.format("%d", numRetakes));
+      pw.println("recording offset=" + String.format("%.2f", recordingOffset));
+      pw.println("num clips=" + String.format("%d", numClips));
+      pw.println("clipped samples=" + String.format("%d", numClippedSamples));
+      pw.println("clip position=" + String.format("%.3f", clipPosition));
+      pw.println("cut begin=" + String.format("%d", cutBegin));
+      pw.println("cut end=" + String.format("%d", cutEnd));
+      pw.println("sample size=" + String.format("%d", sampleSize));
+      pw.println("float format=" + floatFormat);
+      if (getNumChannels() > 1) {
+        for (int i = 0; i < getNumChannels(); i++) {
+          String ch = "ch" + (i + 1) + " ";
+          pw.println(ch + "max amplitude=" + String.format("%.2f", channelMaxAmplitude[i]));
+          pw.println(ch + "top silence=" + String.format("%.2f", channelTopSilence[i]));
+          pw.println(ch + "end silence=" + String.format("%.2f", channelEndSilence[i]));
+          pw.println(ch + "power=" + String.format("%.2f", channelPower[i]));
+        }
+      }
+      pw.close();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  public void load() {
+    if (!FileUtils.canRead(logFile)) {
+      return;
+    }
+
+    try {
+      FileReader fr = new FileReader(logFile);
+      BufferedReader br = new BufferedReader(fr);
+
+      int count = 0;
+      String line;
+      while ((line = br.readLine()) != null) {
+        if (line.startsWith("#")) { // This is a comment line.
+          continue;
+        } else if (line.equals("")) { // Skip empty lines.
+          continue;
+        } else if (line.startsWith("ch")) { // Statistics of a channel
+          loadChannelStatistic(line);
+        } else {
+          String[] ary = line.split("=");
+          switch (count) {
+            case 0:
+              maxAmplitude = Double.parseDouble(ary[1]);
+              break;
+            case 1:
+              topSilence = Double.parseDouble(ary[1]);
+              break;
+            case 2:
+              endSilence = Double.parseDouble(ary[1]);
+              break;
+            case 3:
+              numRetakes = Integer.parseInt(ary[1]);
+              break;
+            case 4:
+              recordingOffset = Double.parseDouble(ary[1]);
+              break;
+            case 5:
+              numClips = Integer.parseInt(ary[1]);
+              break;
+            case 6:
+              numClippedSamples = Long.parseLong(ary[1]);
+              break;
+            case 7:
+              clipPosition = Double.parseDouble(ary[1]);
+              break;
+            case 8:
+              cutBegin = Long.parseLong(ary[1]);
+              break;
+            case 9:
+              cutEnd = Long.parseLong(ary[1]);
+              break;
+            case 10:
+              sampleSize = Integer.parseInt(ary[1]);
+              break;
+            case 11:
+              floatFormat = Boolean.parseBoolean(ary[1]);
+              break;
+            default:
+              VoistUtils.warn("Unexpected log file format: " + logFile.getName(), "load");
+              break;
+          }
+          count++;
+        }
+      }
+
+      br.close();
+      fr.close();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  // Parse a line such as "ch2 top silence=0.45".
+  private void loadChannelStatistic(String line) {
+    String[] ary = line.split("=");
+    int space = ary[0].indexOf(' ');
+    int channel;
+    try {
+      channel = Integer.parseInt(ary[0].substring(2, Math.max(2, space))) - 1;
+    } catch (NumberFormatException e) {
+      channel = -1;
+    }
+    if (channel < 0 || AudioBackend.MAX_CHANNELS <= channel || ary.length < 2) {
+      VoistUtils.warn("Unexpected log file format: " + logFile.getName(), "load");
+      return;
+    }
+    if (channel >= getNumChannels()) {
+      int num = channel + 1;
+      channelMaxAmplitude = Arrays.copyOf(channelMaxAmplitude, num);
+      channelTopSilence = Arrays.copyOf(channelTopSilence, num);
+      channelEndSilence = Arrays.copyOf(channelEndSilence, num);
+      channelPower = Arrays.copyOf(channelPower, num);
+    }
+    double value = Double.parseDouble(ary[1]);
+    switch (ary[0].substring(space + 1)) {
+      case "max amplitude":
+        channelMaxAmplitude[channel] = value;
+        break;
+      case "top silence":
+        channelTopSilence[channel] = value;
+        break;
+      case "end silence":
+        channelEndSilence[channel] = value;
+        break;
+      case "power":
+        channelPower[channel] = value;
+        break;
+      default:
+        VoistUtils.warn("Unexpected log file format: " + logFile.getName(), "load");
+        break;
+    }
+  }
+}
@@ -0,0 +1,185 @@
+// ------------------------------------------------------------------------ //
+// Copyright 2016 Nagoya Institute of Technology                            //
+//                                                                          //
+// Licensed under the Apache License, Version 2.0 (the "License");          //
+// you may not use this file except in compliance with the License.         //
+// You may obtain a copy of the License at                                  //
+//                                                                          //
+//     http://www.apache.org/licenses/LICENSE-2.0                           //
+//                                                                          //
+// Unless required by applicable law or agreed to in writing, software      //
+// distributed under the License is distributed on an "AS IS" BASIS,        //
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
+// See the License for the specific language governing permissions and      //
+// limitations under the License.                                           //
+// ------------------------------------------------------------------------ //
+
+package jp.ac.nitech.sp.voist;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import jp.ac.nitech.sp.voist.Audio.PlaybackEvent;
+import jp.ac.nitech.sp.voist.RecordInfo.RecordStatus;
+
+// Headless entry point, which records, finalizes and plays back takes
+// through FileReplayBackend without any window or sound card, e.g.
+//   java -Djava.awt.headless=true -cp Voist.jar jp.ac.nitech.sp.voist.ReplayBenchmark
+//     input.raw 1000 0
+// The arguments are the raw file replayed as the input, the number of takes
+// and the multiple of real time, whose defaults are REPLAY_INPUT_FILE, 100
+// and 0, i.e. as fast as possible. Takes of silence run in real time, since
+// they have no end. The format of the takes is that of system.Voist.properties.
+public class ReplayBenchmark implements AudioEventListener {
+  private static final String PROPERTIES = "res/properties/system.Voist.properties";
+
+  private static final int DEFAULT_NUM_TAKES = 100;
+
+  // Takes whose end silence is never found, e.g. of silence, are stopped here.
+  private static final int MAX_RECORDING_TIME = 30000; // [msec]
+
+  private final Audio audio;
+
+  // Released when the take should be stopped
+  private final Semaphore stopRequest;
+
+  // Number of takes for each status
+  private final Map<RecordStatus, Integer> numTakes;
+
+  // Number of successful takes which cannot be written
+  private int numFailures;
+
+  public static void main(String[] args) {
+    PropertiesIO properties = new PropertiesIO(PROPERTIES);
+    try {
+      properties.load();
+    } catch (IOException e) {
+      e.printStackTrace();
+      System.exit(1);
+    }
+
+    String fileName = args.length > 0 ? args[0] : properties.getString("REPLAY_INPUT_FILE");
+    int numTakes = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_NUM_TAKES;
+    double speed = args.length > 2 ? Double.parseDouble(args[2]) : 0.0;
+    File inputFile = VoistUtils.isEmptyString(fileName) ? null : new File(fileName);
+    if (inputFile != null && !FileUtils.canRead(inputFile)) {
+      VoistUtils.warn("Cannot read " + inputFile, "main");
+      System.exit(1);
+    }
+
+    ReplayBenchmark benchmark = new ReplayBenchmark(properties, inputFile, speed);
+    boolean done = benchmark.run(numTakes);
+    System.exit(done ? 0 : 1);
+  }
+
+  private ReplayBenchmark(PropertiesIO properties, File inputFile, double speed) {
+    audio = new Audio(new FileReplayBackend(inputFile, speed));
+    audio.setSampleRate(properties.getInteger("SAMPLE_RATE"));
+    audio.setSampleSize(properties.getInteger("SAMPLE_SIZE"));
+    audio.setNumChannels(properties.getInteger("NUM_CHANNELS"));
+    audio.setFloatFormat(properties.getBoolean("FLOAT_FORMAT"));
+    audio.setFramesPerBuffer(properties.getInteger("FRAMES_PER_BUFFER"));
+    audio.setPreRollTime(properties.getInteger("PRE_ROLL_TIME_MILLI_SECONDS"));
+    audio.setBeepGuardTime(properties.getInteger("BEEP_GUARD_TIME_MILLI_SECONDS"));
+    audio.setClipLevel(properties.getDouble("CLIP_LEVEL"));
+    audio.setMaxClips(properties.getInteger("MAX_CLIPS"));
+    audio.setSilenceLevel(properties.getDouble("VAD_LEVEL_A"));
+    audio.setAutoStop(true);
+    audio.setMaxRecordingTime(MAX_RECORDING_TIME);
+    audio.addAudioEventListener(this);
+    stopRequest = new Semaphore(0);
+    numTakes = new EnumMap<>(RecordStatus.class);
+    numFailures = 0;
+  }
+
+  private boolean run(int num) {
+    File dir;
+    try {
+      dir = Files.createTempDirectory("voist").toFile();
+    } catch (IOException e) {
+      e.printStackTrace();
+      return false;
+    }
+
+    audio.open();
+    try {
+      // The stream is opened by the capture thread.
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (!audio.isOpen()) {
+        if (System.nanoTime() > deadline) {
+          VoistUtils.warn("Cannot open the stream", "run");
+          return false;
+        }
+        TimeUnit.MILLISECONDS.sleep(1);
+      }
+
+      long start = System.nanoTime();
+      for (int i = 0; i < num; i++) {
+        if (!take(dir, i)) {
+          return false;
+        }
+      }
+      audio.awaitTakes();
+      double time = (System.nanoTime() - start) / 1e9;
+
+      System.out.println("Takes: " + num);
+      for (Map.Entry<RecordStatus, Integer> e : numTakes.entrySet()) {
+        System.out.println("  " + e.getKey() + ": " + e.getValue());
+      }
+      System.out.println("  Not written: " + numFailures);
+      System.out.printf("Time: %.3f sec (%.3f msec per take)%n", time, 1000 * time / num);
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    } finally {
+      audio.close();
+      for (File file : dir.listFiles()) {
+        file.delete();
+      }
+      dir.delete();
+    }
+  }
+
+  // Record the i-th take until it is stopped, write it and play it back.
+  private boolean take(File dir, int i) throws InterruptedException {
+    RecordInfo info =
+        new RecordInfo(
+            new File(dir, i + "-org.raw").getPath(),
+            new File(dir, i + "-cut.raw").getPath(),
+            new File(dir, i + "-cut.wav").getPath(),
+            null);
+    stopRequest.drainPermits();
+    audio.record(info, null, false);
+    if (!stopRequest.tryAcquire(2 * MAX_RECORDING_TIME, TimeUnit.MILLISECONDS)) {
+      VoistUtils.warn("Take " + i + " is never stopped", "take");
+      return false;
+    }
+    audio.record(info, null, false);
+    numTakes.merge(info.getStatus(), 1, Integer::sum);
+
+    boolean written = audio.getTakeResult().join() != null;
+    if (info.getStatus() != RecordStatus.SUCCESS) {
+      return true;
+    }
+    if (!written) {
+      numFailures++;
+      return true;
+    }
+    audio.playback(info.getVoiceCutFile(), PlaybackEvent.VOICE_CUT);
+    audio.getPlaybackResult().join();
+    return true;
+  }
+
+  @Override
+  public void clipped(AudioEvent e) {}
+
+  @Override
+  public void stopRequested(AudioEvent e) {
+    stopRequest.release();
+  }
+}
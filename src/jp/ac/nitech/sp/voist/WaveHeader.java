@@ -1,143 +1,316 @@
-// ------------------------------------------------------------------------ //
-// Copyright 2016 Nagoya Institute of Technology                            //
-//                                                                          //
-// Licensed under the Apache License, Version 2.0 (the "License");          //
-// you may not use this file except in compliance with the License.         //
-// You may obtain a copy of the License at                                  //
-//                                                                          //
-//     http://www.apache.org/licenses/LICENSE-2.0                           //
-//                                                                          //
-// Unless required by applicable law or agreed to in writing, software      //
-// distributed under the License is distributed on an "AS IS" BASIS,        //
-// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
-// See the License for the specific language governing permissions and      //
-// limitations under the License.                                           //
-// ------------------------------------------------------------------------ //
-
-package jp.ac.nitech.sp.voist;
-
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
-import java.io.IOException;
-import java.io.OutputStream;
-
-public class WaveHeader {
-  //
-  private int sampleRate;
-
-  //
-  private int bitsPerSample;
-
-  //
-  private int numChannels;
-
-  public WaveHeader(int rate, int size, int num) {
-    setSampleRate(rate);
-    setSampleSize(size);
-    setNumChannels(num);
-  }
-
-  public void setSampleRate(int rate) {
-    sampleRate = rate;
-  }
-
-  public void setSampleSize(int size) {
-    bitsPerSample = size * 8;
-  }
-
-  public void setNumChannels(int num) {
-    numChannels = num;
-  }
-
-  public int getSampleRate() {
-    return sampleRate;
-  }
-
-  public int getSampleSize() {
-    return bitsPerSample / 8;
-  }
-
-  public int getNumChannels() {
-    return numChannels;
-  }
-
-  // TODO
-  // public boolean readWav() {}
-
-  public boolean writeWavFromRaw(File rawFile, File wavFile) {
-    if (rawFile == null || wavFile == null) {
-      return false;
-    }
-
-    try {
-      FileInputStream fis = new FileInputStream(rawFile);
-      FileOutputStream fos = new FileOutputStream(wavFile);
-
-      int numBytes = (int) rawFile.length();
-
-      try {
-        // RIFF header
-        writeString(fos, "RIFF");
-        writeInteger(fos, 36 + numBytes);
-        writeString(fos, "WAVE");
-
-        // fmt chunk
-        writeString(fos, "fmt ");
-        writeInteger(fos, 16);
-        writeShort(fos, (short) 1);
-        writeShort(fos, (short) numChannels);
-        writeInteger(fos, sampleRate);
-        writeInteger(fos, numChannels * sampleRate * bitsPerSample / 8);
-        writeShort(fos, (short) (numChannels * bitsPerSample / 8));
-        writeShort(fos, (short) bitsPerSample);
-
-        // data chunk
-        writeString(fos, "data");
-        writeInteger(fos, numBytes);
-
-        // Waveform data
-        int data = -1;
-        do {
-          try {
-            data = fis.read();
-            fos.write(data);
-          } catch (IOException e) {
-            e.printStackTrace();
-          }
-        } while (data != -1);
-
-        fos.close();
-        fis.close();
-      } catch (IOException e) {
-        e.printStackTrace();
-        return false;
-      }
-    } catch (FileNotFoundException e) {
-      e.printStackTrace();
-      return false;
-    }
-
-    return true;
-  }
-
-  private static void writeString(OutputStream os, String val) throws IOException {
-    int length = val.length();
-    for (int i = 0; i < length; i++) {
-      os.write(val.charAt(i));
-    }
-  }
-
-  private static void writeInteger(OutputStream os, int val) throws IOException {
-    os.write(val >> 0);
-    os.write(val >> 8);
-    os.write(val >> 16);
-    os.write(val >> 24);
-  }
-
-  private static void writeShort(OutputStream os, short val) throws IOException {
-    os.write(val >> 0);
-    os.write(val >> 8);
-  }
-}
+// ------------------------------------------------------------------------ //
+// Copyright 2016 Nagoya Institute of Technology                            //
+//                                                                          //
+// Licensed under the Apache License, Version 2.0 (the "License");          //
+// you may not use this file except in compliance with the License.         //
+// You may obtain a copy of the License at                                  //
+//                                                                          //
+//     http://www.apache.org/licenses/LICENSE-2.0                           //
+//                                                                          //
+// Unless required by applicable law or agreed to in writing, software      //
+// distributed under the License is distributed on an "AS IS" BASIS,        //
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
+// See the License for the specific language governing permissions and      //
+// limitations under the License.                                           //
+// ------------------------------------------------------------------------ //
+
+package jp.ac.nitech.sp.voist;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+// Format of a WAV file, which reads and writes the file. A file whose data
+// chunk does not fit in the 32-bit sizes of RIFF is written as RF64, whose
+// sizes are held by the ds64 chunk.
+public class WaveHeader {
+  // Format tags of the fmt chunk
+  private static final int FORMAT_PCM = 1;
+
+  private static final int FORMAT_IEEE_FLOAT = 3;
+
+  private static final int FORMAT_EXTENSIBLE = 0xFFFE;
+
+  // Size of the ds64 chunk without its table
+  private static final int DS64_SIZE = 28;
+
+  // 32-bit size meaning that the size is held by the ds64 chunk
+  private static final long RF64_SIZE = 0xFFFFFFFFL;
+
+  //
+  private int sampleRate;
+
+  //
+  private int bitsPerSample;
+
+  //
+  private int numChannels;
+
+  // Samples are 32-bit float
+  private boolean floatFormat;
+
+  // Position [byte] of the data chunk of the file read by readWav(), or -1
+  private long dataOffset;
+
+  // Size [byte] of the data chunk of the file read by readWav()
+  private long dataSize;
+
+  public WaveHeader(int rate, int size, int num) {
+    setSampleRate(rate);
+    setSampleSize(size);
+    setNumChannels(num);
+    setFloatFormat(false);
+    dataOffset = -1;
+    dataSize = 0;
+  }
+
+  public void setSampleRate(int rate) {
+    sampleRate = rate;
+  }
+
+  public void setSampleSize(int size) {
+    bitsPerSample = size * 8;
+  }
+
+  public void setNumChannels(int num) {
+    numChannels = num;
+  }
+
+  public void setFloatFormat(boolean floatFormat) {
+    this.floatFormat = floatFormat;
+  }
+
+  public int getSampleRate() {
+    return sampleRate;
+  }
+
+  public int getSampleSize() {
+    return bitsPerSample / 8;
+  }
+
+  public int getNumChannels() {
+    return numChannels;
+  }
+
+  public boolean isFloatFormat() {
+    return floatFormat;
+  }
+
+  public long getDataOffset() {
+    return dataOffset;
+  }
+
+  public long getDataSize() {
+    return dataSize;
+  }
+
+  // Read the format of the given WAV or RF64 file into this header, and
+  // return a read-only mapping of its data chunk in little endian, or null if
+  // the file cannot be read. The data chunk is not mapped if it is larger
+  // than a buffer can hold, but its position and size are still set.
+  // The mapping keeps the file open until it is garbage collected, so that
+  // on Windows the file cannot be moved or deleted meanwhile. It is meant for
+  // files which are only read, not for the files of a take, which RecordSet
+  // moves.
+  public ByteBuffer readWav(File wavFile) {
+    if (wavFile == null) {
+      return null;
+    }
+
+    try (FileChannel channel = FileChannel.open(wavFile.toPath(), StandardOpenOption.READ)) {
+      long fileSize = channel.size();
+      ByteBuffer buffer = ByteBuffer.allocate(40).order(ByteOrder.LITTLE_ENDIAN);
+      if (!read(channel, buffer, 0, 12)) {
+        VoistUtils.warn("Too short WAV file " + wavFile, "readWav");
+        return null;
+      }
+      String riff = getString(buffer);
+      buffer.getInt();
+      if (!(riff.equals("RIFF") || riff.equals("RF64")) || !getString(buffer).equals("WAVE")) {
+        VoistUtils.warn("Not a WAV file " + wavFile, "readWav");
+        return null;
+      }
+
+      // Walk the chunks up to the data chunk.
+      long ds64DataSize = -1;
+      boolean hasFormat = false;
+      dataOffset = -1;
+      dataSize = 0;
+      for (long position = 12; position + 8 <= fileSize; ) {
+        read(channel, buffer, position, 8);
+        String id = getString(buffer);
+        long size = Integer.toUnsignedLong(buffer.getInt());
+        long body = position + 8;
+        if (id.equals("ds64") && size >= DS64_SIZE && read(channel, buffer, body, DS64_SIZE)) {
+          buffer.getLong();
+          ds64DataSize = buffer.getLong();
+        } else if (id.equals("fmt ")
+            && size >= 16
+            && read(channel, buffer, body, (int) Math.min(size, 40))) {
+          int format = buffer.getShort() & 0xFFFF;
+          int num = buffer.getShort() & 0xFFFF;
+          int rate = buffer.getInt();
+          buffer.getInt();
+          buffer.getShort();
+          int bits = buffer.getShort() & 0xFFFF;
+          // The format of an extensible file is the head of its sub-format.
+          if (format == FORMAT_EXTENSIBLE && size >= 40) {
+            buffer.position(24);
+            format = buffer.getShort() & 0xFFFF;
+          }
+          if ((format != FORMAT_PCM && format != FORMAT_IEEE_FLOAT) || num == 0 || bits % 8 != 0) {
+            VoistUtils.warn("Unsupported format of " + wavFile, "readWav");
+            return null;
+          }
+          setSampleRate(rate);
+          setSampleSize(bits / 8);
+          setNumChannels(num);
+          setFloatFormat(format == FORMAT_IEEE_FLOAT);
+          hasFormat = true;
+        } else if (id.equals("data")) {
+          if (size == RF64_SIZE && ds64DataSize >= 0) {
+            size = ds64DataSize;
+          }
+          dataOffset = body;
+          dataSize = Math.min(size, fileSize - body);
+          break;
+        }
+        // A chunk of odd size is followed by a pad byte.
+        position = body + size + (size & 1);
+      }
+
+      if (!hasFormat || dataOffset < 0) {
+        VoistUtils.warn("No format or data chunk in " + wavFile, "readWav");
+        return null;
+      }
+      if (dataSize > Integer.MAX_VALUE) {
+        VoistUtils.warn("Too large data chunk to map in " + wavFile, "readWav");
+        return null;
+      }
+      return channel
+          .map(FileChannel.MapMode.READ_ONLY, dataOffset, dataSize)
+          .order(ByteOrder.LITTLE_ENDIAN);
+    } catch (IOException e) {
+      e.printStackTrace();
+      return null;
+    }
+  }
+
+  // Write the raw file with the header. The data is copied by the file system
+  // without passing through the heap where possible.
+  public boolean writeWavFromRaw(File rawFile, File wavFile) {
+    if (rawFile == null || wavFile == null) {
+      return false;
+    }
+
+    try (FileChannel raw = FileChannel.open(rawFile.toPath(), StandardOpenOption.READ);
+        FileChannel wav =
+            FileChannel.open(
+                wavFile.toPath(),
+                StandardOpenOption.WRITE,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+      long numBytes = raw.size();
+      ByteBuffer header = createHeader(numBytes);
+      while (header.hasRemaining()) {
+        wav.write(header);
+      }
+      for (long position = 0; position < numBytes; ) {
+        long n = raw.transferTo(position, numBytes - position, wav);
+        if (n <= 0) {
+          throw new IOException("Cannot copy " + rawFile + " to " + wavFile);
+        }
+        position += n;
+      }
+    } catch (IOException e) {
+      e.printStackTrace();
+      return false;
+    }
+
+    return true;
+  }
+
+  // Return the header of a WAV file whose data chunk has the given number of
+  // bytes, ready to be written. Float samples are written as IEEE float, which
+  // has the fact chunk. The file is RF64 if the data chunk exceeds 4 GB.
+  public ByteBuffer createHeader(long numBytes) {
+    int formatSize = floatFormat ? 18 : 16;
+    int headerSize = 12 + 8 + formatSize + (floatFormat ? 12 : 0) + 8;
+    boolean rf64 = numBytes > RF64_SIZE - (headerSize - 8);
+    if (rf64) {
+      headerSize += 8 + DS64_SIZE;
+    }
+    int blockAlign = numChannels * bitsPerSample / 8;
+    long numFrames = (blockAlign > 0) ? numBytes / blockAlign : 0;
+
+    ByteBuffer header = ByteBuffer.allocate(headerSize).order(ByteOrder.LITTLE_ENDIAN);
+
+    // RIFF header
+    putString(header, rf64 ? "RF64" : "RIFF");
+    header.putInt((int) (rf64 ? RF64_SIZE : headerSize - 8 + numBytes));
+    putString(header, "WAVE");
+
+    // ds64 chunk
+    if (rf64) {
+      putString(header, "ds64");
+      header.putInt(DS64_SIZE);
+      header.putLong(headerSize - 8 + numBytes);
+      header.putLong(numBytes);
+      header.putLong(numFrames);
+      header.putInt(0);
+    }
+
+    // fmt chunk
+    putString(header, "fmt ");
+    header.putInt(formatSize);
+    header.putShort((short) (floatFormat ? FORMAT_IEEE_FLOAT : FORMAT_PCM));
+    header.putShort((short) numChannels);
+    header.putInt(sampleRate);
+    header.putInt(sampleRate * blockAlign);
+    header.putShort((short) blockAlign);
+    header.putShort((short) bitsPerSample);
+
+    // fact chunk
+    if (floatFormat) {
+      header.putShort((short) 0);
+      putString(header, "fact");
+      header.putInt(4);
+      header.putInt((int) (rf64 ? RF64_SIZE : numFrames));
+    }
+
+    // data chunk
+    putString(header, "data");
+    header.putInt((int) (rf64 ? RF64_SIZE : numBytes));
+
+    header.flip();
+    return header;
+  }
+
+  // Read size bytes at the given position into the buffer, which is flipped.
+  private static boolean read(FileChannel channel, ByteBuffer buffer, long position, int size)
+      throws IOException {
+    buffer.clear();
+    buffer.limit(size);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        break;
+      }
+    }
+    buffer.flip();
+    return buffer.limit() == size;
+  }
+
+  private static String getString(ByteBuffer buffer) {
+    byte[] bytes = new byte[4];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.US_ASCII);
+  }
+
+  private static void putString(ByteBuffer buffer, String val) {
+    buffer.put(val.getBytes(StandardCharsets.US_ASCII));
+  }
+}
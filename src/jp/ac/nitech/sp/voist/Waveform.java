@@ -1,202 +1,478 @@
-// ------------------------------------------------------------------------ //
-// Copyright 2016 Nagoya Institute of Technology                            //
-//                                                                          //
-// Licensed under the Apache License, Version 2.0 (the "License");          //
-// you may not use this file except in compliance with the License.         //
-// You may obtain a copy of the License at                                  //
-//                                                                          //
-//     http://www.apache.org/licenses/LICENSE-2.0                           //
-//                                                                          //
-// Unless required by applicable law or agreed to in writing, software      //
-// distributed under the License is distributed on an "AS IS" BASIS,        //
-// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
-// See the License for the specific language governing permissions and      //
-// limitations under the License.                                           //
-// ------------------------------------------------------------------------ //
-
-package jp.ac.nitech.sp.voist;
-
-import java.awt.Color;
-import java.awt.Graphics;
-import java.awt.event.KeyAdapter;
-import java.awt.event.KeyEvent;
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.nio.ByteBuffer;
-import java.nio.channels.FileChannel;
-import java.util.Objects;
-import javax.swing.ImageIcon;
-import javax.swing.JFrame;
-import javax.swing.JPanel;
-
-public class Waveform extends JPanel {
-  private static final long serialVersionUID = 1L;
-
-  //
-  private final PropertiesIO properties;
-
-  //
-  private final JFrame frame;
-
-  //
-  private final int[] xPoints;
-
-  //
-  private final int[] yPoints;
-
-  public Waveform(String propertiesFileName, ImageIcon icon) {
-    Objects.requireNonNull(propertiesFileName);
-    properties = new PropertiesIO(propertiesFileName);
-    try {
-      properties.load();
-    } catch (IOException e) {
-      e.printStackTrace();
-    }
-
-    frame = new JFrame();
-    frame.setAlwaysOnTop(true);
-    frame.setSize(properties.getInteger("FRAME_WIDTH"), properties.getInteger("FRAME_HEIGHT"));
-    frame.setLocation(
-        properties.getInteger("FRAME_LOCATION_X"), properties.getInteger("FRAME_LOCATION_Y"));
-    frame.setResizable(false);
-    frame.setIconImage(icon.getImage());
-    frame.getContentPane().add(this);
-    frame.addKeyListener(
-        new KeyAdapter() {
-          @Override
-          public void keyReleased(KeyEvent e) {
-            switch (e.getKeyCode()) {
-              case KeyEvent.VK_ESCAPE:
-                frame.setVisible(false);
-                break;
-              default:
-                break;
-            }
-          }
-        });
-    setBackground(Color.WHITE);
-
-    int numPoints = properties.getInteger("WAVEFORM_NUM_DRAWING_POINTS");
-    xPoints = new int[numPoints];
-    yPoints = new int[numPoints];
-  }
-
-  public boolean draw(
-      String fileName, int fileLength, String promptId, int sampleSize, int numChannels) {
-    if (fileName == null || fileLength <= 0 || sampleSize <= 0 || numChannels <= 0) {
-      return false;
-    }
-
-    try {
-      FileInputStream fis = new FileInputStream(fileName);
-      FileChannel fc = fis.getChannel();
-      ByteBuffer bb = ByteBuffer.allocate(fileLength);
-
-      fc.read(bb);
-      bb.rewind();
-
-      int dataSize = sampleSize * numChannels;
-      int numPoints = xPoints.length;
-      int skip = fileLength / xPoints.length - dataSize;
-      // Ensure 'skip' is a multiple of 'dataSize'.
-      for (int i = 1; i < dataSize; i++) {
-        if (skip % dataSize == i) {
-          skip -= i;
-          break;
-        }
-      }
-
-      if (skip > 0) {
-        double inverseNumPoints = 1.0 / numPoints;
-        byte[] bytes = new byte[sampleSize];
-
-        for (int i = 0; i < numPoints; i++) {
-          bb.get(bytes);
-
-          // X axis starts at the left side of the screen
-          // and the values increase to the right.
-          xPoints[i] =
-              properties.getInteger("WAVEFORM_LOCATION_X")
-                  + (int)
-                      Math.round(properties.getInteger("WAVEFORM_WIDTH") * i * inverseNumPoints);
-
-          // Y axis starts at the top of the screen
-          // and the values increase downward.
-          yPoints[i] =
-              properties.getInteger("WAVEFORM_LOCATION_Y")
-                  - (int)
-                      (properties.getDouble("WAVEFORM_HEIGHT_SCALE")
-                          * convertBytesToInteger(bytes));
-
-          // Skip points to reduce the computationally complexity.
-          bb.position(bb.position() + skip);
-        }
-      }
-
-      fc.close();
-      fis.close();
-    } catch (FileNotFoundException e) {
-      e.printStackTrace();
-      return false;
-    } catch (IOException e) {
-      e.printStackTrace();
-      return false;
-    }
-
-    frame.setTitle(properties.get("FRAME_TITLE") + promptId + ".raw");
-    frame.setVisible(true);
-    frame.repaint();
-
-    return true;
-  }
-
-  @Override
-  public void setVisible(boolean visible) {
-    frame.setVisible(visible);
-  }
-
-  @Override
-  public boolean isVisible() {
-    return frame.isVisible();
-  }
-
-  @Override
-  public void paintComponent(Graphics graphics) {
-    super.paintComponent(graphics);
-
-    // Draw a waveform.
-    graphics.setColor(Color.BLACK);
-    graphics.drawPolyline(xPoints, yPoints, xPoints.length);
-
-    // Draw normalization lines.
-    int normalizationLine =
-        (int)
-            (Integer.MAX_VALUE
-                * properties.getDouble("NORMALIZATION_RATE")
-                * properties.getDouble("WAVEFORM_HEIGHT_SCALE"));
-    int x = properties.getInteger("WAVEFORM_LOCATION_X");
-    int y = properties.getInteger("WAVEFORM_LOCATION_Y");
-    int width = properties.getInteger("WAVEFORM_WIDTH");
-    graphics.setColor(Color.BLUE);
-    graphics.drawLine(x, normalizationLine + y, x + width, normalizationLine + y);
-    graphics.drawLine(x, -normalizationLine + y, x + width, -normalizationLine + y);
-  }
-
-  private static int convertBytesToInteger(byte[] bytes) {
-    Objects.requireNonNull(bytes);
-
-    byte[] reverse = new byte[4];
-    for (int i = bytes.length - 1, j = 0; i >= 0; i--, j++) {
-      reverse[j] = bytes[i];
-    }
-
-    int convertedInteger = 0;
-    for (byte b : reverse) {
-      int i = 0xFF & b;
-      convertedInteger = (convertedInteger << 8) + i;
-    }
-
-    return convertedInteger;
-  }
-}
+// ------------------------------------------------------------------------ //
+// Copyright 2016 Nagoya Institute of Technology                            //
+//                                                                          //
+// Licensed under the Apache License, Version 2.0 (the "License");          //
+// you may not use this file except in compliance with the License.         //
+// You may obtain a copy of the License at                                  //
+//                                                                          //
+//     http://www.apache.org/licenses/LICENSE-2.0                           //
+//                                                                          //
+// Unless required by applicable law or agreed to in writing, software      //
+// distributed under the License is distributed on an "AS IS" BASIS,        //
+// WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. //
+// See the License for the specific language governing permissions and      //
+// limitations under the License.                                           //
+// ------------------------------------------------------------------------ //
+
+package jp.ac.nitech.sp.voist;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.GraphicsConfiguration;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import javax.swing.ImageIcon;
+import javax.swing.JFrame;
+import javax.swing.JPanel;
+import javax.swing.SwingWorker;
+
+// Viewer of a take which can be zoomed and scrolled. The waveform is drawn
+// into tiles of TILE_WIDTH columns once per zoom level, and a repaint only
+// copies the visible tiles and draws the lines over them. The mouse wheel
+// zooms around the cursor and dragging scrolls, as well as the arrow keys.
+// Home shows the whole take again.
+public class Waveform extends JPanel {
+  private static final long serialVersionUID = 1L;
+
+  // Columns of a tile
+  private static final int TILE_WIDTH = 256;
+
+  // Tiles kept in memory, which are enough for a few zoom levels
+  private static final int MAX_TILES = 64;
+
+  // Zoom is limited to this number of frames per column
+  private static final double MIN_FRAMES_PER_COLUMN = 0.125;
+
+  // Height [pixel] of the bar showing the visible range of the take
+  private static final int OVERVIEW_HEIGHT = 6;
+
+  //
+  private final PropertiesIO properties;
+
+  //
+  private final JFrame frame;
+
+  // Layout read once from the properties
+  private final int left;
+
+  private final int center;
+
+  private final int width;
+
+  private final double heightScale;
+
+  private final double normalizationRate;
+
+  // Tiles in access order, keyed by the zoom level and the tile index
+  private final LinkedHashMap<Long, BufferedImage> tiles;
+
+  // Take being shown
+  private File file;
+
+  private int sampleSize;
+
+  private int numChannels;
+
+  private boolean floatFormat;
+
+  private long numFrames;
+
+  // Frames [cutBegin, cutEnd) of the take kept by the cut, or -1
+  private long cutBegin;
+
+  private long cutEnd;
+
+  // Envelope of the take loaded in background when it is first needed
+  private PeakPyramid peaks;
+
+  private PeakLoader peakLoader;
+
+  // The take is zoomed by 2^zoom from the width of the waveform.
+  private int zoom;
+
+  private int maxZoom;
+
+  // Column of the take at the left of the waveform
+  private long scroll;
+
+  // Height of the tiles, which are drawn again if the panel is resized
+  private int tileHeight;
+
+  // Position of the mouse while dragging
+  private int dragX;
+
+  public Waveform(String propertiesFileName, ImageIcon icon) {
+    Objects.requireNonNull(propertiesFileName);
+    properties = new PropertiesIO(propertiesFileName);
+    try {
+      properties.load();
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+
+    left = properties.getInteger("WAVEFORM_LOCATION_X");
+    center = properties.getInteger("WAVEFORM_LOCATION_Y");
+    width = properties.getInteger("WAVEFORM_WIDTH");
+    heightScale = properties.getDouble("WAVEFORM_HEIGHT_SCALE");
+    normalizationRate = properties.getDouble("NORMALIZATION_RATE");
+    tiles =
+        new LinkedHashMap<Long, BufferedImage>(16, 0.75f, true) {
+          private static final long serialVersionUID = 1L;
+
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Long, BufferedImage> eldest) {
+            return size() > MAX_TILES;
+          }
+        };
+
+    frame = new JFrame();
+    frame.setAlwaysOnTop(true);
+    frame.setSize(properties.getInteger("FRAME_WIDTH"), properties.getInteger("FRAME_HEIGHT"));
+    frame.setLocation(
+        properties.getInteger("FRAME_LOCATION_X"), properties.getInteger("FRAME_LOCATION_Y"));
+    frame.setResizable(false);
+    frame.setIconImage(icon.getImage());
+    frame.getContentPane().add(this);
+    frame.addKeyListener(
+        new KeyAdapter() {
+          @Override
+          public void keyPressed(KeyEvent e) {
+            switch (e.getKeyCode()) {
+              case KeyEvent.VK_LEFT:
+                scrollTo(scroll - width / 4);
+                break;
+              case KeyEvent.VK_RIGHT:
+                scrollTo(scroll + width / 4);
+                break;
+              case KeyEvent.VK_UP:
+              case KeyEvent.VK_PLUS:
+              case KeyEvent.VK_ADD:
+                zoomAt(zoom + 1, width / 2);
+                break;
+              case KeyEvent.VK_DOWN:
+              case KeyEvent.VK_MINUS:
+              case KeyEvent.VK_SUBTRACT:
+                zoomAt(zoom - 1, width / 2);
+                break;
+              case KeyEvent.VK_HOME:
+                zoomAt(0, 0);
+                break;
+              default:
+                break;
+            }
+          }
+
+          @Override
+          public void keyReleased(KeyEvent e) {
+            switch (e.getKeyCode()) {
+              case KeyEvent.VK_ESCAPE:
+                frame.setVisible(false);
+                break;
+              default:
+                break;
+            }
+          }
+        });
+    MouseAdapter mouse =
+        new MouseAdapter() {
+          @Override
+          public void mousePressed(MouseEvent e) {
+            dragX = e.getX();
+          }
+
+          @Override
+          public void mouseDragged(MouseEvent e) {
+            scrollTo(scroll + dragX - e.getX());
+            dragX = e.getX();
+          }
+
+          @Override
+          public void mouseWheelMoved(MouseWheelEvent e) {
+            zoomAt(zoom - e.getWheelRotation(), e.getX() - left);
+          }
+        };
+    addMouseListener(mouse);
+    addMouseMotionListener(mouse);
+    addMouseWheelListener(mouse);
+    setBackground(Color.WHITE);
+  }
+
+  // Show the whole raw file. The frames [cutBegin, cutEnd) are marked as the
+  // part kept by the cut unless cutBegin is negative. The file is never read
+  // into the heap, see PeakPyramid.
+  public boolean draw(
+      String fileName,
+      long fileLength,
+      long cutBegin,
+      long cutEnd,
+      String promptId,
+      int sampleSize,
+      int numChannels,
+      boolean floatFormat) {
+    if (fileName == null || fileLength <= 0 || sampleSize <= 0 || numChannels <= 0) {
+      return false;
+    }
+    long numFrames = fileLength / (sampleSize * numChannels);
+    if (numFrames <= 0) {
+      return false;
+    }
+
+    file = new File(fileName);
+    this.sampleSize = sampleSize;
+    this.numChannels = numChannels;
+    this.floatFormat = floatFormat;
+    this.numFrames = numFrames;
+    this.cutBegin = cutBegin;
+    this.cutEnd = cutEnd;
+    peaks = null;
+    if (peakLoader != null) {
+      peakLoader.cancel(false);
+      peakLoader = null;
+    }
+    tiles.clear();
+    maxZoom = 0;
+    while (getFramesPerColumn(maxZoom + 1) >= MIN_FRAMES_PER_COLUMN) {
+      maxZoom++;
+    }
+    zoom = 0;
+    scroll = 0;
+
+    frame.setTitle(properties.get("FRAME_TITLE") + promptId + ".raw");
+    frame.setVisible(true);
+    frame.repaint();
+
+    return true;
+  }
+
+  @Override
+  public void setVisible(boolean visible) {
+    frame.setVisible(visible);
+  }
+
+  @Override
+  public boolean isVisible() {
+    return frame.isVisible();
+  }
+
+  @Override
+  public void paintComponent(Graphics graphics) {
+    super.paintComponent(graphics);
+    if (file == null) {
+      return;
+    }
+    if (tileHeight != getHeight()) {
+      tiles.clear();
+      tileHeight = getHeight();
+    }
+
+    // Copy the visible tiles.
+    Graphics g = graphics.create(left, 0, width, getHeight());
+    long totalWidth = getTotalWidth(zoom);
+    for (long index = scroll / TILE_WIDTH;
+        index * TILE_WIDTH < Math.min(scroll + width, totalWidth);
+        index++) {
+      BufferedImage tile = getTile(index);
+      if (tile != null) {
+        g.drawImage(tile, (int) (index * TILE_WIDTH - scroll), 0, null);
+      }
+    }
+
+    // Shade the frames removed by the cut and mark its boundaries.
+    if (cutBegin >= 0 && cutBegin < cutEnd) {
+      int begin = (int) Math.max(-1, Math.min(width, toColumn(cutBegin)));
+      int end = (int) Math.max(-1, Math.min(width, toColumn(cutEnd)));
+      g.setColor(new Color(0, 0, 0, 48));
+      g.fillRect(0, 0, begin, getHeight());
+      g.fillRect(end, 0, width - end, getHeight());
+      g.setColor(Color.RED);
+      g.drawLine(begin, 0, begin, getHeight());
+      g.drawLine(end, 0, end, getHeight());
+    }
+
+    // Draw normalization lines. Y axis starts at the top of the screen and the
+    // values increase downward.
+    int normalizationLine = (int) (Integer.MAX_VALUE * normalizationRate * heightScale);
+    g.setColor(Color.BLUE);
+    g.drawLine(0, center + normalizationLine, width, center + normalizationLine);
+    g.drawLine(0, center - normalizationLine, width, center - normalizationLine);
+    g.dispose();
+
+    // Draw the visible range of the take.
+    if (zoom > 0) {
+      int y = getHeight() - 2 * OVERVIEW_HEIGHT;
+      int x = left + (int) (width * scroll / totalWidth);
+      int w = Math.max(1, (int) (width * Math.min(width, totalWidth - scroll) / totalWidth));
+      graphics.setColor(Color.LIGHT_GRAY);
+      graphics.drawRect(left, y, width, OVERVIEW_HEIGHT);
+      graphics.fillRect(x, y, w, OVERVIEW_HEIGHT + 1);
+    }
+  }
+
+  private double getFramesPerColumn(int zoom) {
+    return Math.scalb((double) numFrames / width, -zoom);
+  }
+
+  private long getTotalWidth(int zoom) {
+    return (long) Math.ceil(numFrames / getFramesPerColumn(zoom));
+  }
+
+  // Column of the waveform showing the given frame
+  private long toColumn(long frame) {
+    return (long) Math.floor(frame / getFramesPerColumn(zoom)) - scroll;
+  }
+
+  private void scrollTo(long column) {
+    if (file == null) {
+      return;
+    }
+    scroll = Math.max(0, Math.min(column, getTotalWidth(zoom) - width));
+    repaint();
+  }
+
+  // Zoom keeping the frame at the given column of the waveform in place.
+  private void zoomAt(int level, int column) {
+    if (file == null) {
+      return;
+    }
+    level = Math.max(0, Math.min(level, maxZoom));
+    column = Math.max(0, Math.min(column, width));
+    double frame = (scroll + column) * getFramesPerColumn(zoom);
+    zoom = level;
+    scrollTo((long) (frame / getFramesPerColumn(zoom)) - column);
+  }
+
+  // Return the tile of the current zoom level, which is drawn if it is not
+  // cached, or null if the file cannot be read or its envelope is not loaded
+  // yet.
+  private BufferedImage getTile(long index) {
+    Long key = ((long) zoom << 48) | index;
+    BufferedImage tile = tiles.get(key);
+    if (tile != null) {
+      return tile;
+    }
+
+    // Columns past the end of the take are left blank.
+    double framesPerColumn = getFramesPerColumn(zoom);
+    long first = index * TILE_WIDTH;
+    int numColumns = (int) Math.min(TILE_WIDTH, getTotalWidth(zoom) - first);
+    long begin = (long) (first * framesPerColumn);
+    long end =
+        Math.min(
+            numFrames,
+            Math.max(begin + 1, (long) Math.ceil((first + numColumns) * framesPerColumn)));
+    short[] mins = new short[numColumns];
+    short[] maxs = new short[numColumns];
+    if (framesPerColumn < 1.0) {
+      // Each frame spans several columns, which are placed the same as the cut.
+      int n = (int) (end - begin);
+      short[] frameMins = new short[n];
+      short[] frameMaxs = new short[n];
+      if (!PeakPyramid.readEnvelope(
+          file, sampleSize, numChannels, floatFormat, begin, end, frameMins, frameMaxs)) {
+        return null;
+      }
+      for (int x = 0; x < numColumns; x++) {
+        int i = (int) Math.min(n - 1, (long) ((first + x) * framesPerColumn) - begin);
+        mins[x] = frameMins[i];
+        maxs[x] = frameMaxs[i];
+      }
+    } else if (PeakPyramid.canResolve(framesPerColumn)) {
+      // Columns of many frames are never read from the file on the EDT.
+      if (getPeaks() == null) {
+        return null;
+      }
+      peaks.getEnvelope(begin, end, mins, maxs);
+    } else if (!PeakPyramid.readEnvelope(
+        file, sampleSize, numChannels, floatFormat, begin, end, mins, maxs)) {
+      return null;
+    }
+
+    GraphicsConfiguration config = getGraphicsConfiguration();
+    tile =
+        config != null
+            ? config.createCompatibleImage(TILE_WIDTH, tileHeight)
+            : new BufferedImage(TILE_WIDTH, tileHeight, BufferedImage.TYPE_INT_RGB);
+    Graphics g = tile.createGraphics();
+    g.setColor(Color.WHITE);
+    g.fillRect(0, 0, TILE_WIDTH, tileHeight);
+    double scale = heightScale * (1 << 16);
+    g.setColor(Color.BLACK);
+    for (int x = 0; x < numColumns; x++) {
+      g.drawLine(
+          x,
+          center - (int) Math.round(scale * maxs[x]),
+          x,
+          center - (int) Math.round(scale * mins[x]));
+    }
+    g.dispose();
+
+    tiles.put(key, tile);
+    return tile;
+  }
+
+  // Return the envelope of the take, or null while it is loaded in
+  // background, after which the waveform is drawn again.
+  private PeakPyramid getPeaks() {
+    if (peaks == null && peakLoader == null) {
+      peakLoader = new PeakLoader();
+      peakLoader.execute();
+    }
+    return peaks;
+  }
+
+  // The envelope stored with the take is used if it is up to date. Otherwise
+  // it is built in memory, e.g. for a take recorded by an older version.
+  private class PeakLoader extends SwingWorker<PeakPyramid, Void> {
+    private final File file;
+
+    private final int sampleSize;
+
+    private final int numChannels;
+
+    private final boolean floatFormat;
+
+    public PeakLoader() {
+      file = Waveform.this.file;
+      sampleSize = Waveform.this.sampleSize;
+      numChannels = Waveform.this.numChannels;
+      floatFormat = Waveform.this.floatFormat;
+    }
+
+    @Override
+    protected PeakPyramid doInBackground() throws Exception {
+      PeakPyramid pyramid = PeakPyramid.read(file, sampleSize * numChannels);
+      if (pyramid == null) {
+        pyramid = PeakPyramid.build(file, sampleSize, numChannels, floatFormat);
+      }
+      return pyramid;
+    }
+
+    // A loader replaced by another take is ignored. If the envelope cannot be
+    // loaded, the tiles which need it are left blank.
+    @Override
+    protected void done() {
+      if (peakLoader != this || isCancelled()) {
+        return;
+      }
+      try {
+        peaks = get();
+      } catch (InterruptedException | ExecutionException e) {
+        e.printStackTrace();
+      }
+      if (peaks != null) {
+        tiles.clear();
+        repaint();
+      }
+    }
+  }
+}